@@ -0,0 +1,155 @@
+package com.ashimjk.reactiveapi.benchmark;
+
+import com.ashimjk.reactiveapi.product.codec.ProductCodecConfiguration;
+import com.ashimjk.reactiveapi.product.codec.ProductMediaTypes;
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Encode and decode cost of product and event lists per wire format, using the codecs the server is configured with.
+ * The encoded size of each list is printed once per fork.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    private static final ResolvableType PRODUCT_LIST = ResolvableType.forClassWithGenerics(List.class, Product.class);
+    private static final ResolvableType EVENT_LIST = ResolvableType.forClassWithGenerics(List.class, ProductEvent.class);
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private MediaType mediaType;
+    private Encoder<Object> encoder;
+    private Decoder<Object> decoder;
+
+    private List<Product> products;
+    private List<ProductEvent> events;
+    private byte[] encodedProducts;
+    private byte[] encodedEvents;
+
+    @Setup
+    public void setup() {
+        ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+        new ProductCodecConfiguration().binaryCodecCustomizer(Jackson2ObjectMapperBuilder.json()).customize(configurer);
+
+        mediaType = mediaType(format);
+        encoder = encoder(configurer, mediaType);
+        decoder = decoder(configurer, mediaType);
+
+        products = IntStream.range(0, size)
+                            .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.99 + i, (long) i, null))
+                            .collect(Collectors.toList());
+        events = products.stream()
+                         .map(product -> new ProductEvent(product.getId(), ProductEventType.UPDATED, product))
+                         .collect(Collectors.toList());
+
+        encodedProducts = toBytes(products, PRODUCT_LIST);
+        encodedEvents = toBytes(events, EVENT_LIST);
+        System.out.printf("%n%s, %d products: %d bytes, %d events: %d bytes%n",
+                          format, size, encodedProducts.length, size, encodedEvents.length);
+    }
+
+    @Benchmark
+    public int encodeProducts() {
+        return encode(products, PRODUCT_LIST);
+    }
+
+    @Benchmark
+    public int encodeEvents() {
+        return encode(events, EVENT_LIST);
+    }
+
+    @Benchmark
+    public Object decodeProducts() {
+        return decode(encodedProducts, PRODUCT_LIST);
+    }
+
+    @Benchmark
+    public Object decodeEvents() {
+        return decode(encodedEvents, EVENT_LIST);
+    }
+
+    private int encode(Object value, ResolvableType type) {
+        DataBuffer buffer = encoder.encodeValue(value, DefaultDataBufferFactory.sharedInstance, type, mediaType, null);
+        int bytes = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    private Object decode(byte[] bytes, ResolvableType type) {
+        return decoder.decode(DefaultDataBufferFactory.sharedInstance.wrap(bytes), type, mediaType, null);
+    }
+
+    private byte[] toBytes(Object value, ResolvableType type) {
+        DataBuffer buffer = encoder.encodeValue(value, DefaultDataBufferFactory.sharedInstance, type, mediaType, null);
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    private static MediaType mediaType(String format) {
+        switch (format) {
+            case "json":
+                return APPLICATION_JSON;
+            case "cbor":
+                return APPLICATION_CBOR;
+            case "smile":
+                return ProductMediaTypes.APPLICATION_SMILE;
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Encoder<Object> encoder(ServerCodecConfigurer configurer, MediaType mediaType) {
+        return configurer.getWriters()
+                         .stream()
+                         .filter(EncoderHttpMessageWriter.class::isInstance)
+                         .map(writer -> (Encoder<Object>) ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                         .filter(encoder -> encoder.canEncode(PRODUCT_LIST, mediaType))
+                         .findFirst()
+                         .orElseThrow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Decoder<Object> decoder(ServerCodecConfigurer configurer, MediaType mediaType) {
+        return configurer.getReaders()
+                         .stream()
+                         .filter(DecoderHttpMessageReader.class::isInstance)
+                         .map(reader -> (Decoder<Object>) ((DecoderHttpMessageReader<?>) reader).getDecoder())
+                         .filter(decoder -> decoder.canDecode(PRODUCT_LIST, mediaType))
+                         .findFirst()
+                         .orElseThrow();
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.ashimjk.reactiveapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Full request handling through the WebFlux {@code HttpHandler}: filters, routing, handler, service and JSON
+ * encoding, without a network in between.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HandlerBenchmark {
+
+    @Benchmark
+    public String controllerGetById(ProductApiState state) {
+        return handle(state, MockServerHttpRequest.get("/controller/products/{id}", "1"));
+    }
+
+    @Benchmark
+    public String routesGetById(ProductApiState state) {
+        return handle(state, MockServerHttpRequest.get("/routes/products/{id}", "1"));
+    }
+
+    @Benchmark
+    public String controllerList(ProductApiState state) {
+        return handle(state, MockServerHttpRequest.get("/controller/products"));
+    }
+
+    @Benchmark
+    public String routesList(ProductApiState state) {
+        return handle(state, MockServerHttpRequest.get("/routes/products"));
+    }
+
+    private static String handle(ProductApiState state, MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        state.httpHandler.handle(request.accept(APPLICATION_JSON).build(), response).block();
+        return response.getBodyAsString().block();
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.ashimjk.reactiveapi.benchmark;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Jackson encoding of product and event lists, as written for a list response.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JsonEncodingBenchmark {
+
+    private static final ResolvableType PRODUCT_LIST = ResolvableType.forClassWithGenerics(List.class, Product.class);
+    private static final ResolvableType EVENT_LIST = ResolvableType.forClassWithGenerics(List.class, ProductEvent.class);
+
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder();
+
+    private List<Product> products;
+    private List<ProductEvent> events;
+
+    @Setup
+    public void setup() {
+        products = IntStream.range(0, size)
+                            .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.99 + i))
+                            .collect(Collectors.toList());
+        events = products.stream()
+                         .map(product -> new ProductEvent(product.getId(), ProductEventType.UPDATED, product))
+                         .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int encodeProducts() {
+        return encode(products, PRODUCT_LIST);
+    }
+
+    @Benchmark
+    public int encodeEvents() {
+        return encode(events, EVENT_LIST);
+    }
+
+    private int encode(Object value, ResolvableType type) {
+        DataBuffer buffer = encoder.encodeValue(value, DefaultDataBufferFactory.sharedInstance, type, APPLICATION_JSON, null);
+        int bytes = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.ashimjk.reactiveapi.benchmark;
+
+import com.ashimjk.reactiveapi.product.cache.ProductCache;
+import com.ashimjk.reactiveapi.product.cache.ProductResponseCache;
+import com.ashimjk.reactiveapi.product.controller.ProductController;
+import com.ashimjk.reactiveapi.product.event.ProductEventBus;
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.reactive.EndpointRoutes;
+import com.ashimjk.reactiveapi.product.reactive.ProductHandler;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.search.ProductSearchIndex;
+import com.ashimjk.reactiveapi.product.service.ProductService;
+import com.ashimjk.reactiveapi.product.stats.ProductPriceStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.function.server.support.RouterFunctionMapping;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Both product APIs wired into one WebFlux context on top of {@link StubProductRepository}, with or without the
+ * encoded response cache.
+ */
+@State(Scope.Benchmark)
+public class ProductApiState {
+
+    @Param({"10", "100"})
+    public int productCount;
+
+    @Param({"true", "false"})
+    public boolean responseCache;
+
+    public List<Product> products;
+    public HttpHandler httpHandler;
+    public RequestMappingHandlerMapping annotatedMapping;
+    public RouterFunctionMapping functionalMapping;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        products = IntStream.range(0, productCount)
+                            .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.99 + i))
+                            .collect(Collectors.toList());
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment()
+               .getPropertySources()
+               .addFirst(new MapPropertySource(
+                       "benchmark",
+                       Map.of("product.response-cache.enabled", String.valueOf(responseCache))
+               ));
+        context.registerBean(ProductRepository.class, () -> StubProductRepository.create(products));
+        context.registerBean(ObjectMapper.class, () -> Jackson2ObjectMapperBuilder.json().build());
+        context.register(
+                WebFluxConfiguration.class,
+                ProductController.class,
+                EndpointRoutes.class,
+                ProductHandler.class,
+                ProductService.class,
+                ProductCache.class,
+                ProductResponseCache.class,
+                ProductEventBus.class,
+                ProductSearchIndex.class,
+                ProductPriceStats.class
+        );
+        context.refresh();
+
+        httpHandler = WebHttpHandlerBuilder.applicationContext(context).build();
+        annotatedMapping = context.getBean(RequestMappingHandlerMapping.class);
+        functionalMapping = context.getBean(RouterFunctionMapping.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @EnableWebFlux
+    @Configuration(proxyBeanMethods = false)
+    static class WebFluxConfiguration {
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.ashimjk.reactiveapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Cost of resolving the handler for a request: {@code @RequestMapping} lookup vs the nested {@code EndpointRoutes}
+ * predicates. Building the exchange is included in both.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RoutingBenchmark {
+
+    // MockServerWebExchange.from builds a new codec configurer per exchange, which would dominate the measurement
+    private static final ServerCodecConfigurer CODEC_CONFIGURER = ServerCodecConfigurer.create();
+    private static final DefaultWebSessionManager SESSION_MANAGER = new DefaultWebSessionManager();
+    private static final AcceptHeaderLocaleContextResolver LOCALE_RESOLVER = new AcceptHeaderLocaleContextResolver();
+
+    @Benchmark
+    public Object annotatedGetById(ProductApiState state) {
+        return state.annotatedMapping.getHandler(getById("/controller/products/{id}")).block();
+    }
+
+    @Benchmark
+    public Object functionalGetById(ProductApiState state) {
+        return state.functionalMapping.getHandler(getById("/routes/products/{id}")).block();
+    }
+
+    @Benchmark
+    public Object annotatedList(ProductApiState state) {
+        return state.annotatedMapping.getHandler(list("/controller/products")).block();
+    }
+
+    @Benchmark
+    public Object functionalList(ProductApiState state) {
+        return state.functionalMapping.getHandler(list("/routes/products")).block();
+    }
+
+    private static ServerWebExchange getById(String uriTemplate) {
+        return exchange(MockServerHttpRequest.get(uriTemplate, "1").accept(APPLICATION_JSON).build());
+    }
+
+    private static ServerWebExchange list(String uri) {
+        return exchange(MockServerHttpRequest.get(uri).accept(APPLICATION_JSON).build());
+    }
+
+    private static ServerWebExchange exchange(MockServerHttpRequest request) {
+        return new DefaultServerWebExchange(
+                request,
+                new MockServerHttpResponse(),
+                SESSION_MANAGER,
+                CODEC_CONFIGURER,
+                LOCALE_RESOLVER
+        );
+    }
+
+}
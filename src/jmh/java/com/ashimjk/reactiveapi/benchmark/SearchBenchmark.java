@@ -0,0 +1,60 @@
+package com.ashimjk.reactiveapi.benchmark;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.search.ProductSearchIndex;
+import com.ashimjk.reactiveapi.product.search.ProductSearchProperties;
+import com.ashimjk.reactiveapi.product.seed.ProductGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of the product search index over synthetic products, for a rare word, a common word with a prefix
+ * and a word with a typo. The estimated heap used by the index is printed once per fork.
+ */
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int productCount;
+
+    private ProductSearchIndex index;
+    private String rareWord;
+
+    @Setup
+    public void setup() {
+        index = new ProductSearchIndex(new ProductSearchProperties());
+        List<Product> products = ProductGenerator.generate(productCount).collectList().block();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            product.setId(String.format("%024x", i));
+            index.index(product);
+        }
+        rareWord = products.get(products.size() / 2).getName().split(" ")[2];
+
+        System.out.printf("%n%d products: ~%d MB estimated for the search index%n",
+                          productCount, index.estimatedBytes() / (1024 * 1024));
+    }
+
+    @Benchmark
+    public List<Product> rareWord() {
+        return index.search(rareWord, 20);
+    }
+
+    @Benchmark
+    public List<Product> commonWordAndPrefix() {
+        return index.search("iced moc", 20);
+    }
+
+    @Benchmark
+    public List<Product> typo() {
+        return index.search("capucino", 20);
+    }
+
+}
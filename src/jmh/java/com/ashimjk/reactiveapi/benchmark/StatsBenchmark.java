@@ -0,0 +1,116 @@
+package com.ashimjk.reactiveapi.benchmark;
+
+import com.ashimjk.reactiveapi.ReactiveApiSampleApplication;
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsMode;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.repository.memory.InMemoryProductProperties;
+import com.ashimjk.reactiveapi.product.repository.memory.InMemoryProductRepository;
+import com.ashimjk.reactiveapi.product.seed.ProductGenerator;
+import com.ashimjk.reactiveapi.product.stats.ProductPriceStats;
+import com.ashimjk.reactiveapi.product.stats.ProductStatsProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price statistics over synthetic products: reading the running statistics, updating a price and reading them again,
+ * aggregating over the in-memory repository's price index or on Mongo, and computing them from {@code findAll}.
+ * {@code mongoAggregate} needs the Mongo server configured in {@code application.properties} (or with
+ * {@code spring.data.mongodb.*} JVM arguments); it resets the product collection to the generated products.
+ */
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StatsBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int productCount;
+
+    private final ProductStatsProperties properties = new ProductStatsProperties();
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private ProductPriceStats stats;
+    private InMemoryProductRepository repository;
+    private List<Product> products;
+
+    @Setup
+    public void setup() {
+        stats = new ProductPriceStats(properties);
+        repository = new InMemoryProductRepository(new InMemoryProductProperties());
+        products = repository.insert(ProductGenerator.generate(productCount)).collectList().block();
+        products.forEach(stats::put);
+    }
+
+    @Benchmark
+    public ProductStats running() {
+        return stats.stats();
+    }
+
+    @Benchmark
+    public ProductStats runningAfterUpdate() {
+        Product product = products.get(random.nextInt(products.size()));
+        double price = Math.round(random.nextDouble(0.5, 20) * 100) / 100.0;
+        stats.put(new Product(product.getId(), product.getName(), price));
+        return stats.stats();
+    }
+
+    @Benchmark
+    public ProductStats aggregate() {
+        return repository.aggregatePriceStats(properties.getPercentiles()).block();
+    }
+
+    @Benchmark
+    public ProductStats mongoAggregate(MongoState mongo) {
+        return mongo.repository.aggregatePriceStats(properties.getPercentiles()).block();
+    }
+
+    @Benchmark
+    public ProductStats findAll() {
+        double[] prices = repository.findAll()
+                                    .map(Product::getPrice)
+                                    .collectList()
+                                    .map(list -> list.stream().mapToDouble(Double::doubleValue).toArray())
+                                    .block();
+        Arrays.sort(prices);
+        return ProductStats.ofSorted(ProductStatsMode.AGGREGATE, prices, properties.getPercentiles());
+    }
+
+    /**
+     * The application without its web server, seeded with as many products as the benchmark.
+     */
+    @State(Scope.Benchmark)
+    public static class MongoState {
+
+        private ConfigurableApplicationContext application;
+        private ProductRepository repository;
+
+        @Setup
+        public void setup(StatsBenchmark benchmark) {
+            application = new SpringApplicationBuilder(ReactiveApiSampleApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties("spring.rsocket.server.port=0",
+                                "product.seed.mode=reset",
+                                "product.seed.generated=" + benchmark.productCount)
+                    .run();
+            repository = application.getBean(ProductRepository.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            application.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.ashimjk.reactiveapi.benchmark;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ProductRepository} answering from a fixed list, so benchmarks measure the web tier and not the database.
+ */
+class StubProductRepository implements InvocationHandler {
+
+    private final List<Product> products;
+    private final Map<String, Product> productsById;
+
+    private StubProductRepository(List<Product> products) {
+        this.products = products;
+        this.productsById = products.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    static ProductRepository create(List<Product> products) {
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                new StubProductRepository(products)
+        );
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "findById":
+            case "findAndUpdate":
+            case "findAndUpsert":
+            case "findAndDeleteById":
+                return Mono.justOrEmpty(productsById.get((String) args[0]));
+            case "findAll":
+            case "findAllBy":
+            case "findByIdGreaterThan":
+                return Flux.fromIterable(products);
+            case "save":
+                return Mono.just(args[0]);
+            case "toString":
+                return "StubProductRepository";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                return Mono.class.equals(method.getReturnType()) ? Mono.empty() : Flux.empty();
+        }
+    }
+
+}
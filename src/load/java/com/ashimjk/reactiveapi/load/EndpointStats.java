@@ -0,0 +1,71 @@
+package com.ashimjk.reactiveapi.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one scenario request. Latencies are recorded in microseconds, up to a minute, with three
+ * significant digits.
+ */
+final class EndpointStats {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Recorder latencies = new Recorder(MAX_MICROS, 3);
+    private final Map<Integer, LongAdder> errorsByStatus = new ConcurrentSkipListMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    void record(long startNanos, int status) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        latencies.recordValue(Math.min(micros, MAX_MICROS));
+        if (status >= 400) {
+            errorsByStatus.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+    }
+
+    void failed() {
+        failures.increment();
+    }
+
+    void skipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Forgets everything recorded so far, at the end of the warmup.
+     */
+    void reset() {
+        latencies.reset();
+        errorsByStatus.clear();
+        failures.reset();
+        skipped.reset();
+    }
+
+    Histogram latencies() {
+        return latencies.getIntervalHistogram();
+    }
+
+    long errors() {
+        return errorsByStatus.values().stream().mapToLong(LongAdder::sum).sum() + failures.sum();
+    }
+
+    String errorSummary() {
+        Map<String, Long> summary = new TreeMap<>();
+        errorsByStatus.forEach((status, count) -> summary.put(String.valueOf(status), count.sum()));
+        if (failures.sum() > 0) {
+            summary.put("failed", failures.sum());
+        }
+        if (skipped.sum() > 0) {
+            summary.put("skipped", skipped.sum());
+        }
+        return summary.isEmpty() ? "" : summary.toString();
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.ashimjk.reactiveapi.load;
+
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the requests of an IntelliJ HTTP client file: {@code ###} and a name, the request line, headers, an optional
+ * body and an optional {@code > {% ... %}} response handler. Of the handler, only
+ * {@code client.global.set("x", response.body.field)} and
+ * {@code client.global.set("x", response.headers.valueOf("Header"))} are understood.
+ */
+final class HttpFile {
+
+    private static final Pattern REQUEST_LINE = Pattern.compile("^([A-Z]+)\\s+(.+?)(\\s+HTTP/[\\d.]+)?$");
+    private static final Pattern BODY_CAPTURE = Pattern.compile("client\\.global\\.set\\(\"(\\w+)\",\\s*response\\.body\\.(\\w+)\\)");
+    private static final Pattern HEADER_CAPTURE = Pattern.compile("client\\.global\\.set\\(\"(\\w+)\",\\s*response\\.headers\\.valueOf\\(\"([^\"]+)\"\\)\\)");
+
+    private HttpFile() {
+    }
+
+    static List<RequestTemplate> parse(Path file) throws IOException {
+        String scenario = file.getFileName().toString().replaceFirst("\\.http$", "");
+        List<RequestTemplate> requests = new ArrayList<>();
+
+        List<String> block = new ArrayList<>();
+        String name = null;
+        for (String line : Files.readAllLines(file)) {
+            if (line.startsWith("###")) {
+                if (name != null) {
+                    parseBlock(scenario + ": " + name, block, requests);
+                }
+                name = line.substring(3).trim();
+                block.clear();
+            } else {
+                block.add(line);
+            }
+        }
+        if (name != null) {
+            parseBlock(scenario + ": " + name, block, requests);
+        }
+        return requests;
+    }
+
+    private static void parseBlock(String name, List<String> lines, List<RequestTemplate> requests) {
+        int index = 0;
+        while (index < lines.size() && lines.get(index).isBlank()) {
+            index++;
+        }
+        if (index == lines.size()) {
+            return;
+        }
+
+        Matcher requestLine = REQUEST_LINE.matcher(lines.get(index++));
+        if (!requestLine.find()) {
+            throw new IllegalArgumentException("Expected a request line in '" + name + "'");
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        while (index < lines.size() && !lines.get(index).isBlank()) {
+            String header = lines.get(index++);
+            int separator = header.indexOf(':');
+            headers.put(header.substring(0, separator).trim(), header.substring(separator + 1).trim());
+        }
+
+        StringBuilder body = new StringBuilder();
+        Map<String, String> bodyCaptures = new LinkedHashMap<>();
+        Map<String, String> headerCaptures = new LinkedHashMap<>();
+        for (; index < lines.size(); index++) {
+            String line = lines.get(index);
+            if (line.startsWith(">")) {
+                collect(BODY_CAPTURE.matcher(line), bodyCaptures);
+                collect(HEADER_CAPTURE.matcher(line), headerCaptures);
+            } else {
+                body.append(line).append('\n');
+            }
+        }
+
+        requests.add(new RequestTemplate(
+                name,
+                HttpMethod.valueOf(requestLine.group(1)),
+                pathAndQuery(requestLine.group(2)),
+                headers,
+                body.toString().isBlank() ? null : body.toString().strip(),
+                bodyCaptures,
+                headerCaptures
+        ));
+    }
+
+    /**
+     * Drops scheme, host and port, so that the requests can be sent to any base URL. Placeholders aren't valid in a
+     * URI, so the path is cut at the first slash after the authority instead of parsed.
+     */
+    private static String pathAndQuery(String url) {
+        int authority = url.indexOf("://");
+        if (authority < 0) {
+            return url;
+        }
+        int path = url.indexOf('/', authority + 3);
+        return path < 0 ? "/" : url.substring(path);
+    }
+
+    private static void collect(Matcher matcher, Map<String, String> captures) {
+        while (matcher.find()) {
+            captures.put(matcher.group(1), matcher.group(2));
+        }
+    }
+
+}
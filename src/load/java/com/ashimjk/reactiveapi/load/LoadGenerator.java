@@ -0,0 +1,287 @@
+package com.ashimjk.reactiveapi.load;
+
+import com.ashimjk.reactiveapi.ReactiveApiSampleApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays the {@code client/*.http} scenarios against a running application with {@link WebClient} and reports
+ * throughput and latency percentiles per request.
+ * <p>
+ * In the closed model, {@code concurrency} virtual users replay the scenarios back to back. In the open model,
+ * replays start at {@code rate} per second and latency is measured from when a replay was due to start rather than
+ * from when it actually started, so a slow server can't hide its queueing delay by slowing the generator down
+ * (coordinated omission). Arrivals beyond {@code max-in-flight} are dropped and counted.
+ * <p>
+ * Each virtual user of the closed model keeps the variables set by response handlers, like the id of the product it
+ * created, across replays; in the open model every replay starts without variables. Requests whose variables aren't
+ * set yet are skipped. Users send {@code X-Client-Id} from a pool of {@code clients} ids, if set, to spread them over
+ * the per-client rate limits, which the application only keys on the header with
+ * {@code product.admission.trust-client-id-header}. Requests matching {@code skip} are never sent; by default that is
+ * the one that deletes all products and the event stream, which {@code sse-subscribers} covers instead.
+ * <p>
+ * With {@code app-profiles}, the application is started in-process on a random port with those profiles, e.g.
+ * {@code memory,perf}, and stopped afterwards; it trusts the client id header when {@code clients} is set.
+ */
+public final class LoadGenerator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final LoadOptions options;
+    private final List<RequestTemplate> requests;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final LongAdder droppedArrivals = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final WebClient webClient;
+
+    private LoadGenerator(LoadOptions options, List<RequestTemplate> requests) {
+        this.options = options;
+        this.requests = requests;
+        requests.forEach(request -> stats.put(request.getName(), new EndpointStats()));
+
+        ConnectionProvider connections = ConnectionProvider.builder("load")
+                                                           .maxConnections(connections(options))
+                                                           .pendingAcquireMaxCount(-1)
+                                                           .build();
+        this.webClient = WebClient.builder()
+                                  .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                                  .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+
+        List<RequestTemplate> requests = new ArrayList<>();
+        for (Path scenario : options.scenarios) {
+            HttpFile.parse(scenario)
+                    .stream()
+                    .filter(request -> !options.skip.matcher(request.getName()).find())
+                    .forEach(requests::add);
+        }
+
+        ConfigurableApplicationContext application = null;
+        if (options.appProfiles != null) {
+            application = new SpringApplicationBuilder(ReactiveApiSampleApplication.class)
+                    .profiles(options.appProfiles.split(","))
+                    .properties("server.port=0", "product.admission.trust-client-id-header=" + (options.clients > 0))
+                    .run();
+            options.baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            new LoadGenerator(options, requests).run();
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private void run() {
+        Duration total = options.warmup.plus(options.duration);
+        System.out.printf("%s load against %s: %s, %d requests per replay, %s warmup, %s measured, %d SSE subscribers%n",
+                          options.model, options.baseUrl,
+                          options.model == LoadOptions.Model.CLOSED
+                                  ? options.concurrency + " users"
+                                  : options.rate + " replays/s",
+                          requests.size(), options.warmup, options.duration, options.sseSubscribers);
+
+        Mono.delay(options.warmup).subscribe(ignored -> reset());
+
+        long start = System.nanoTime();
+        Flux.merge(replays(start), subscribers()).take(total).blockLast();
+        long measuredNanos = System.nanoTime() - start - options.warmup.toNanos();
+
+        report(measuredNanos);
+    }
+
+    /**
+     * Replays until cancelled at the end of the run; requests still in flight then aren't recorded.
+     */
+    private Flux<Void> replays(long start) {
+        if (options.model == LoadOptions.Model.CLOSED) {
+            return Flux.range(0, options.concurrency)
+                       .flatMap(user -> {
+                                    Map<String, String> variables = new ConcurrentHashMap<>();
+                                    return replay(user, variables, null).repeat();
+                                },
+                                options.concurrency);
+        }
+
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate);
+        return Flux.interval(Duration.ZERO, Duration.ofNanos(periodNanos))
+                   .onBackpressureDrop(arrival -> droppedArrivals.increment())
+                   .flatMap(arrival -> replay((int) (arrival % options.concurrency), new ConcurrentHashMap<>(),
+                                              start + arrival * periodNanos),
+                            options.maxInFlight);
+    }
+
+    /**
+     * Sends the scenario requests one after the other. The first one is timed from {@code due} when given.
+     */
+    private Mono<Void> replay(int user, Map<String, String> variables, Long due) {
+        String clientId = options.clients > 0 ? "load-" + user % options.clients : null;
+
+        return Flux.fromIterable(requests)
+                   .index()
+                   .concatMap(request -> send(request.getT2(), variables, clientId, request.getT1() == 0 ? due : null))
+                   .then();
+    }
+
+    private Mono<Void> send(RequestTemplate request, Map<String, String> variables, String clientId, Long due) {
+        EndpointStats endpoint = stats.get(request.getName());
+
+        return Mono.defer(() -> {
+            String pathAndQuery = RequestTemplate.resolve(request.getPathAndQuery(), variables);
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                headers.put(header.getKey(), RequestTemplate.resolve(header.getValue(), variables));
+            }
+            String body = RequestTemplate.resolve(request.getBody(), variables);
+            if (pathAndQuery == null || headers.containsValue(null) || (request.getBody() != null && body == null)) {
+                endpoint.skipped();
+                return Mono.empty();
+            }
+
+            long start = due == null ? System.nanoTime() : due;
+            WebClient.RequestBodySpec spec = webClient.method(request.getMethod())
+                                                      .uri(URI.create(options.baseUrl + pathAndQuery.replace(" ", "%20")))
+                                                      .headers(httpHeaders -> headers.forEach(httpHeaders::set));
+            if (clientId != null) {
+                spec.header("X-Client-Id", clientId);
+            }
+            if (body != null) {
+                spec.bodyValue(body);
+            }
+
+            return spec.exchangeToMono(response -> consume(request, response, variables))
+                       .doOnNext(status -> endpoint.record(start, status));
+        }).doOnError(error -> endpoint.failed())
+          .onErrorResume(error -> Mono.empty())
+          .then();
+    }
+
+    /**
+     * Reads the body, only into memory when the response handler needs a field of it, and stores the variables.
+     */
+    private Mono<Integer> consume(RequestTemplate request, ClientResponse response, Map<String, String> variables) {
+        int status = response.rawStatusCode();
+        if (status >= 400) {
+            return response.releaseBody().thenReturn(status);
+        }
+
+        request.getHeaderCaptures().forEach((variable, header) -> {
+            String value = response.headers().asHttpHeaders().getFirst(header);
+            if (value != null) {
+                variables.put(variable, value);
+            }
+        });
+
+        if (request.getBodyCaptures().isEmpty()) {
+            return response.releaseBody().thenReturn(status);
+        }
+        return response.bodyToMono(String.class)
+                       .doOnNext(body -> capture(request, body, variables))
+                       .thenReturn(status);
+    }
+
+    private static void capture(RequestTemplate request, String body, Map<String, String> variables) {
+        try {
+            JsonNode json = MAPPER.readTree(body);
+            request.getBodyCaptures().forEach((variable, field) -> {
+                JsonNode value = json.get(field);
+                if (value != null && !value.isNull()) {
+                    variables.put(variable, value.asText());
+                }
+            });
+        } catch (Exception e) {
+            // not JSON, nothing to capture
+        }
+    }
+
+    private Flux<Void> subscribers() {
+        return Flux.range(0, options.sseSubscribers)
+                   .flatMap(subscriber -> webClient.get()
+                                                   .uri(URI.create(options.baseUrl + options.ssePath))
+                                                   .accept(MediaType.TEXT_EVENT_STREAM)
+                                                   .retrieve()
+                                                   .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                                                   .filter(event -> event.data() != null)
+                                                   .doOnNext(event -> events.increment())
+                                                   .onErrorResume(error -> Flux.empty())
+                                                   .then(),
+                            Math.max(1, options.sseSubscribers));
+    }
+
+    private void reset() {
+        stats.values().forEach(EndpointStats::reset);
+        droppedArrivals.reset();
+        events.reset();
+    }
+
+    private void report(long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        System.out.printf("%n%-50s %9s %9s %7s %9s %9s %9s %9s %9s  %s%n",
+                          "Request", "Count", "Req/s", "Errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "Max ms", "");
+
+        long totalCount = 0;
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            Histogram latencies = entry.getValue().latencies();
+            totalCount += latencies.getTotalCount();
+            System.out.printf("%-50s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                              entry.getKey(),
+                              latencies.getTotalCount(),
+                              latencies.getTotalCount() / seconds,
+                              entry.getValue().errors(),
+                              millis(latencies.getValueAtPercentile(50)),
+                              millis(latencies.getValueAtPercentile(90)),
+                              millis(latencies.getValueAtPercentile(99)),
+                              millis(latencies.getValueAtPercentile(99.9)),
+                              millis(latencies.getMaxValue()),
+                              entry.getValue().errorSummary());
+        }
+
+        System.out.printf("%nTotal: %d requests in %.1f s, %.1f req/s%n", totalCount, seconds, totalCount / seconds);
+        if (options.model == LoadOptions.Model.OPEN) {
+            System.out.printf("Dropped arrivals (max in flight reached): %d%n", droppedArrivals.sum());
+        }
+        if (options.sseSubscribers > 0) {
+            System.out.printf("SSE: %d subscribers received %d events, %.1f events/s per subscriber%n",
+                              options.sseSubscribers, events.sum(), events.sum() / seconds / options.sseSubscribers);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000d;
+    }
+
+    private static int connections(LoadOptions options) {
+        int requests = options.model == LoadOptions.Model.CLOSED ? options.concurrency : options.maxInFlight;
+        return requests + options.sseSubscribers;
+    }
+
+}
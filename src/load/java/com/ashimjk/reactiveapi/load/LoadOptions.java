@@ -0,0 +1,103 @@
+package com.ashimjk.reactiveapi.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Command line options of {@link LoadGenerator}, given as {@code --name=value}.
+ */
+final class LoadOptions {
+
+    enum Model {
+
+        /**
+         * A fixed number of virtual users, each replaying the scenarios back to back.
+         */
+        CLOSED,
+
+        /**
+         * Scenario replays start at a fixed rate, however long the running ones take.
+         */
+        OPEN
+
+    }
+
+    String baseUrl = "http://localhost:8080";
+    List<Path> scenarios = List.of(Path.of("client/product-controller.http"), Path.of("client/product-routes.http"));
+    Pattern skip = Pattern.compile("Delete All Product|List Events");
+    Model model = Model.CLOSED;
+    int concurrency = 16;
+    double rate = 50;
+    int maxInFlight = 1024;
+    int clients = 0;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(30);
+    int sseSubscribers = 0;
+    String ssePath = "/controller/products/events";
+    String appProfiles;
+
+    static LoadOptions parse(String... args) {
+        LoadOptions options = new LoadOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got '" + arg + "'");
+            }
+            options.set(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "base-url":
+                baseUrl = value;
+                break;
+            case "scenarios":
+                scenarios = Arrays.stream(value.split(",")).map(Path::of).collect(Collectors.toList());
+                break;
+            case "skip":
+                skip = Pattern.compile(value);
+                break;
+            case "model":
+                model = Model.valueOf(value.toUpperCase());
+                break;
+            case "concurrency":
+                concurrency = Integer.parseInt(value);
+                break;
+            case "rate":
+                rate = Double.parseDouble(value);
+                break;
+            case "max-in-flight":
+                maxInFlight = Integer.parseInt(value);
+                break;
+            case "clients":
+                clients = Integer.parseInt(value);
+                break;
+            case "warmup":
+                warmup = DurationStyle.detectAndParse(value);
+                break;
+            case "duration":
+                duration = DurationStyle.detectAndParse(value);
+                break;
+            case "sse-subscribers":
+                sseSubscribers = Integer.parseInt(value);
+                break;
+            case "sse-path":
+                ssePath = value;
+                break;
+            case "app-profiles":
+                appProfiles = value;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option --" + name);
+        }
+    }
+
+}
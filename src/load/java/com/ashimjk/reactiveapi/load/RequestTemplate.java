@@ -0,0 +1,57 @@
+package com.ashimjk.reactiveapi.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpMethod;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One request of a {@code .http} scenario, with {@code {{ name }}} placeholders still in place, and the values its
+ * response handler stores for later requests.
+ */
+@Getter
+@AllArgsConstructor
+final class RequestTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*(\\w+)\\s*}}");
+
+    private final String name;
+    private final HttpMethod method;
+    private final String pathAndQuery;
+    private final Map<String, String> headers;
+    private final String body;
+
+    /**
+     * Variable name to top-level field of the JSON response body.
+     */
+    private final Map<String, String> bodyCaptures;
+
+    /**
+     * Variable name to response header.
+     */
+    private final Map<String, String> headerCaptures;
+
+    /**
+     * Replaces the placeholders in {@code text}, or returns null when a variable isn't set yet.
+     */
+    static String resolve(String text, Map<String, String> variables) {
+        if (text == null) {
+            return null;
+        }
+
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            String value = variables.get(matcher.group(1));
+            if (value == null) {
+                return null;
+            }
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(value));
+        }
+        return matcher.appendTail(resolved).toString();
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.ashimjk.reactiveapi;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Instruments the Reactor schedulers before any bean can create one, for every way the application is started:
+ * {@code main}, tests and benchmarks alike. Registered in {@code META-INF/spring.factories}. Scheduler metrics go to
+ * Micrometer's global registry, which Boot adds its own registries to.
+ */
+public class SchedulerMetricsInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    @Override
+    public void initialize(ConfigurableApplicationContext applicationContext) {
+        Schedulers.enableMetrics();
+    }
+
+}
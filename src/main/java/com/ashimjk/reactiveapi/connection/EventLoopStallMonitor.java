@@ -0,0 +1,172 @@
+package com.ashimjk.reactiveapi.connection;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.util.concurrent.EventExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends every event loop of the server a probe task each {@code stall-probe-interval} and records how long it waited
+ * to run. A loop whose probe waits longer than {@code stall-threshold} is stalled, most likely by a blocking call: the
+ * stall is counted and the stack of the loop's thread is logged while it is still stuck, and how long it lasted once
+ * the probe runs.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(NettyServerProperties.class)
+public class EventLoopStallMonitor implements MeterBinder {
+
+    private final NettyServerProperties properties;
+    private final NettyServerTuning tuning;
+    private final List<LoopProbe> probes = new ArrayList<>();
+    private final AtomicLong stalls = new AtomicLong();
+
+    private volatile Timer delay;
+    private volatile Timer stallDuration;
+    private ScheduledExecutorService scheduler;
+
+    public EventLoopStallMonitor(NettyServerProperties properties, NettyServerTuning tuning) {
+        this.properties = properties;
+        this.tuning = tuning;
+    }
+
+    @PostConstruct
+    void start() {
+        Duration probeInterval = properties.getStallProbeInterval();
+        if (probeInterval.isZero()) {
+            return;
+        }
+
+        for (EventExecutor loop : tuning.eventLoops()) {
+            probes.add(new LoopProbe(loop));
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-loop-stall-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::probe, 0, probeInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        delay = Timer.builder("connection.netty.event.loop.delay")
+                     .description("Time probe tasks waited to run on an event loop")
+                     .register(registry);
+        stallDuration = Timer.builder("connection.netty.event.loop.stall")
+                             .description("Time event loops stayed stalled")
+                             .register(registry);
+        FunctionCounter.builder("connection.netty.event.loop.stalls", stalls, AtomicLong::get)
+                       .description("Event loops that didn't run a probe task within the stall threshold")
+                       .register(registry);
+    }
+
+    private void probe() {
+        long now = System.nanoTime();
+        for (LoopProbe probe : probes) {
+            probe.check(now);
+        }
+    }
+
+    private static String stackOf(Thread thread) {
+        if (thread == null) {
+            return "";
+        }
+
+        StringBuilder stack = new StringBuilder();
+        for (StackTraceElement frame : thread.getStackTrace()) {
+            stack.append(System.lineSeparator()).append("\tat ").append(frame);
+        }
+        return stack.toString();
+    }
+
+    /**
+     * The probe of one event loop, at most one of which is queued on the loop at a time.
+     */
+    private final class LoopProbe implements Runnable {
+
+        private final EventExecutor loop;
+
+        private volatile boolean pending;
+        private volatile long submittedAt;
+        private volatile boolean stalled;
+        private volatile Thread thread;
+
+        LoopProbe(EventExecutor loop) {
+            this.loop = loop;
+        }
+
+        void check(long now) {
+            if (!pending) {
+                submit(now);
+                return;
+            }
+
+            long waited = now - submittedAt;
+            if (!stalled && waited >= properties.getStallThreshold().toNanos()) {
+                stalled = true;
+                stalls.incrementAndGet();
+                Thread stalledThread = thread;
+                log.warn("Event loop {} hasn't run a task for {} ms{}",
+                         stalledThread != null ? stalledThread.getName() : loop,
+                         TimeUnit.NANOSECONDS.toMillis(waited),
+                         stackOf(stalledThread));
+            }
+        }
+
+        @Override
+        public void run() {
+            long waited = System.nanoTime() - submittedAt;
+            thread = Thread.currentThread();
+
+            Timer delayTimer = delay;
+            if (delayTimer != null) {
+                delayTimer.record(waited, TimeUnit.NANOSECONDS);
+            }
+            if (stalled) {
+                Timer stallTimer = stallDuration;
+                if (stallTimer != null) {
+                    stallTimer.record(waited, TimeUnit.NANOSECONDS);
+                }
+                log.warn("Event loop {} ran a task again after {} ms", thread.getName(), TimeUnit.NANOSECONDS.toMillis(waited));
+                stalled = false;
+            }
+            pending = false;
+        }
+
+        private void submit(long now) {
+            submittedAt = now;
+            pending = true;
+            try {
+                loop.execute(this);
+            } catch (RejectedExecutionException e) {
+                // the loop is shutting down
+                pending = false;
+            }
+        }
+
+    }
+
+}
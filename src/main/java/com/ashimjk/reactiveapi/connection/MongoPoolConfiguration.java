@@ -0,0 +1,51 @@
+package com.ashimjk.reactiveapi.connection;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link MongoPoolProperties} to the driver and reports them as gauges, next to the pool usage Boot already
+ * reports as {@code mongodb.driver.pool.*}.
+ */
+@Configuration
+@EnableConfigurationProperties(MongoPoolProperties.class)
+public class MongoPoolConfiguration {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer(MongoPoolProperties properties) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(properties.getMaxSize())
+                .minSize(properties.getMinSize())
+                .maxConnecting(properties.getMaxConnecting())
+                .maxWaitTime(properties.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                .maxConnectionIdleTime(properties.getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                .maxConnectionLifeTime(properties.getMaxLifeTime().toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Bean
+    public MeterBinder mongoPoolSettingsMetrics(MongoPoolProperties properties) {
+        return registry -> {
+            Gauge.builder("connection.mongo.max.size", properties, MongoPoolProperties::getMaxSize)
+                 .description("Configured maximum size of the Mongo connection pool")
+                 .register(registry);
+            Gauge.builder("connection.mongo.min.size", properties, MongoPoolProperties::getMinSize)
+                 .description("Configured minimum size of the Mongo connection pool")
+                 .register(registry);
+            Gauge.builder("connection.mongo.max.connecting", properties, MongoPoolProperties::getMaxConnecting)
+                 .description("Configured number of Mongo connections established at once")
+                 .register(registry);
+            TimeGauge.builder("connection.mongo.max.wait", properties, TimeUnit.MILLISECONDS,
+                              settings -> settings.getMaxWaitTime().toMillis())
+                     .description("Configured time an operation waits for a Mongo connection")
+                     .register(registry);
+        };
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.ashimjk.reactiveapi.connection;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * Connection pool of the Mongo driver. The field defaults are the driver's own, what an unset property falls back to;
+ * {@code application.properties} sets the values the service runs with: up to 200 connections with 10 kept warm, 4
+ * opened at once, a 2s wait for a connection so that a saturated pool fails requests instead of queueing them for
+ * minutes, and idle connections closed after 5 minutes.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "connection.mongo")
+public class MongoPoolProperties {
+
+    /**
+     * Connections the pool opens at most; further operations wait for one to be returned.
+     */
+    @Min(1)
+    private int maxSize = 100;
+
+    /**
+     * Connections the pool keeps open even when idle.
+     */
+    @Min(0)
+    private int minSize = 0;
+
+    /**
+     * Connections being established at once; operations beyond that wait rather than open more.
+     */
+    @Min(1)
+    private int maxConnecting = 2;
+
+    /**
+     * How long an operation waits for a connection before it fails. This is the driver's only bound on the queue of
+     * waiting operations.
+     */
+    @NotNull
+    private Duration maxWaitTime = Duration.ofMinutes(2);
+
+    /**
+     * How long a connection may stay idle before it is closed; 0 keeps it.
+     */
+    @NotNull
+    private Duration maxIdleTime = Duration.ZERO;
+
+    /**
+     * How long a connection may live before it is closed; 0 keeps it.
+     */
+    @NotNull
+    private Duration maxLifeTime = Duration.ZERO;
+
+    @AssertTrue(message = "min-size must not exceed max-size")
+    public boolean isMinSizeWithinMaxSize() {
+        return minSize <= maxSize;
+    }
+
+    @AssertTrue(message = "durations must not be negative")
+    public boolean isDurationsNotNegative() {
+        return isNotNegative(maxWaitTime) && isNotNegative(maxIdleTime) && isNotNegative(maxLifeTime);
+    }
+
+    private static boolean isNotNegative(Duration duration) {
+        return duration == null || !duration.isNegative();
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.ashimjk.reactiveapi.connection;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.time.Duration;
+
+/**
+ * Resources of the Reactor Netty server that Boot's {@code server.netty.*} properties don't cover. Idle timeout,
+ * keep-alive and HTTP/2 are configured through Boot's {@code server.netty.*} and {@code server.http2.enabled}.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "connection.netty")
+public class NettyServerProperties {
+
+    /**
+     * Event-loop threads serving connections; 0 shares Reactor Netty's default loops, one per core but at least 4.
+     */
+    @Min(0)
+    private int eventLoopThreads = 0;
+
+    /**
+     * Threads only accepting connections; 0 lets the event-loop threads accept them too.
+     */
+    @Min(0)
+    private int selectThreads = 0;
+
+    /**
+     * Open connections the server accepts at most; further connections are closed right away. 0 means unlimited.
+     */
+    @Min(0)
+    private int maxConnections = 0;
+
+    /**
+     * How often each event loop is sent a probe task to measure how long tasks wait to run; 0 disables the probes.
+     */
+    private Duration stallProbeInterval = Duration.ofMillis(100);
+
+    /**
+     * Wait of a probe task after which its event loop counts as stalled and the stack of its thread is logged.
+     */
+    private Duration stallThreshold = Duration.ofMillis(200);
+
+}
@@ -0,0 +1,100 @@
+package com.ashimjk.reactiveapi.connection;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.EventLoopGroup;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.stereotype.Component;
+import reactor.netty.Connection;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the server on its own event loops when {@link NettyServerProperties} asks for a thread count, and closes
+ * connections beyond the maximum as soon as they are accepted. Open and rejected connections are reported along with
+ * the settings.
+ */
+@Component
+@EnableConfigurationProperties(NettyServerProperties.class)
+public class NettyServerTuning implements NettyServerCustomizer, MeterBinder {
+
+    private final NettyServerProperties properties;
+    private final LoopResources loops;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public NettyServerTuning(NettyServerProperties properties) {
+        this.properties = properties;
+        if (properties.getSelectThreads() > 0) {
+            this.loops = LoopResources.create("http-server", properties.getSelectThreads(), eventLoopThreads(properties), true);
+        } else if (properties.getEventLoopThreads() > 0) {
+            this.loops = LoopResources.create("http-server", eventLoopThreads(properties), true);
+        } else {
+            this.loops = null;
+        }
+    }
+
+    @Override
+    public HttpServer apply(HttpServer server) {
+        if (loops != null) {
+            server = server.runOn(loops);
+        }
+        if (properties.getMaxConnections() > 0) {
+            server = server.doOnConnection(this::admit);
+        }
+        return server;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("connection.netty.event.loop.threads", properties, NettyServerTuning::eventLoopThreads)
+             .description("Event-loop threads of the HTTP server")
+             .register(registry);
+        Gauge.builder("connection.netty.max.connections", properties, NettyServerProperties::getMaxConnections)
+             .description("Configured maximum of open HTTP connections, 0 if unlimited")
+             .register(registry);
+        Gauge.builder("connection.netty.connections", connections, AtomicInteger::get)
+             .description("Open HTTP connections, when they are limited")
+             .register(registry);
+        FunctionCounter.builder("connection.netty.rejected", rejected, AtomicLong::get)
+                       .description("HTTP connections closed because the maximum was reached")
+                       .register(registry);
+    }
+
+    /**
+     * The event loops serving connections, the server's own or Reactor Netty's shared ones.
+     */
+    EventLoopGroup eventLoops() {
+        return (loops != null ? loops : HttpResources.get()).onServer(LoopResources.DEFAULT_NATIVE);
+    }
+
+    @PreDestroy
+    void disposeLoops() {
+        if (loops != null) {
+            loops.dispose();
+        }
+    }
+
+    private void admit(Connection connection) {
+        if (connections.incrementAndGet() > properties.getMaxConnections()) {
+            connections.decrementAndGet();
+            rejected.incrementAndGet();
+            connection.dispose();
+            return;
+        }
+        connection.onDispose(connections::decrementAndGet);
+    }
+
+    private static int eventLoopThreads(NettyServerProperties properties) {
+        return properties.getEventLoopThreads() > 0 ? properties.getEventLoopThreads() : LoopResources.DEFAULT_IO_WORKER_COUNT;
+    }
+
+}
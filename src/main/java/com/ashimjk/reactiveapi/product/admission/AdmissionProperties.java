@@ -0,0 +1,68 @@
+package com.ashimjk.reactiveapi.product.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.admission")
+public class AdmissionProperties {
+
+    /**
+     * Whether product requests are subject to admission control at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Upper bound, and starting value, of the number of product requests in flight.
+     */
+    private int maxConcurrency = 256;
+
+    /**
+     * Lower bound the adaptive concurrency limit never shrinks below.
+     */
+    private int minConcurrency = 16;
+
+    /**
+     * Whether the concurrency limit shrinks when latency exceeds the target and grows back when it doesn't.
+     */
+    private boolean adaptive = true;
+
+    /**
+     * Smoothed request latency above which the adaptive concurrency limit shrinks.
+     */
+    private Duration targetLatency = Duration.ofMillis(250);
+
+    /**
+     * Sustained requests per second a single client is allowed.
+     */
+    private double requestsPerSecond = 100;
+
+    /**
+     * Requests a client may make in a burst on top of the sustained rate.
+     */
+    private int burst = 200;
+
+    /**
+     * Whether clients are identified by the client id header. Only enable this behind a proxy or authentication layer
+     * that sets the header, since clients could otherwise pick a fresh id for every request.
+     */
+    private boolean trustClientIdHeader = false;
+
+    /**
+     * Header identifying the client when it is trusted; the remote address is used when it is absent.
+     */
+    private String clientIdHeader = "X-Client-Id";
+
+    /**
+     * Number of clients whose rate limits are tracked; the least recently seen ones are forgotten first.
+     */
+    private int maxClients = 10_000;
+
+    /**
+     * Retry-After sent when the concurrency limit is reached.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+}
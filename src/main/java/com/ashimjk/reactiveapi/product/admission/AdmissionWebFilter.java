@@ -0,0 +1,150 @@
+package com.ashimjk.reactiveapi.product.admission;
+
+import com.ashimjk.reactiveapi.product.codec.ProductMediaTypes;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sheds product requests before they queue up in reactive chains: 429 once a client exceeds its rate, 503 once the
+ * concurrency limit is reached, both with a Retry-After. Event streams are exempt since they stay open by design.
+ * Streamed listings and bulk uploads only count against the rate: they last as long as the client keeps reading or
+ * sending, so they would hold a permit for that long and skew the latency the adaptive limit follows.
+ * <p>
+ * Clients are told apart by remote address, or by the client id header when a trusted proxy sets it.
+ */
+@Component
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionWebFilter implements WebFilter, MeterBinder {
+
+    private final AdmissionProperties properties;
+    private final ConcurrencyLimit concurrencyLimit;
+    private final Cache<String, TokenBucket> buckets;
+
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong concurrencyLimited = new AtomicLong();
+
+    public AdmissionWebFilter(AdmissionProperties properties) {
+        this.properties = properties;
+        this.concurrencyLimit = new ConcurrencyLimit(properties, System.nanoTime());
+        this.buckets = Caffeine.newBuilder()
+                               .maximumSize(properties.getMaxClients())
+                               .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || !isAdmissionControlled(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+
+        long now = System.nanoTime();
+        long waitNanos = buckets.get(clientId(exchange.getRequest()), key -> newBucket(now)).tryConsume(now);
+        if (waitNanos > 0) {
+            rateLimited.incrementAndGet();
+            return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, Duration.ofNanos(waitNanos));
+        }
+
+        if (isLongLived(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+
+        if (!concurrencyLimit.tryAcquire()) {
+            concurrencyLimited.incrementAndGet();
+            return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, properties.getRetryAfter());
+        }
+
+        return Mono.defer(() -> chain.filter(exchange))
+                   .doFinally(signalType -> {
+                       long end = System.nanoTime();
+                       concurrencyLimit.release(end - now, signalType != SignalType.CANCEL, end);
+                   });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.admission.limit", concurrencyLimit, ConcurrencyLimit::limit)
+             .description("Current limit of product requests in flight")
+             .register(registry);
+        Gauge.builder("product.admission.in.flight", concurrencyLimit, ConcurrencyLimit::inFlight)
+             .description("Product requests in flight")
+             .register(registry);
+        FunctionCounter.builder("product.admission.rejected", rateLimited, AtomicLong::get)
+                       .tag("reason", "rate")
+                       .description("Product requests rejected by admission control")
+                       .register(registry);
+        FunctionCounter.builder("product.admission.rejected", concurrencyLimited, AtomicLong::get)
+                       .tag("reason", "concurrency")
+                       .description("Product requests rejected by admission control")
+                       .register(registry);
+    }
+
+    private TokenBucket newBucket(long now) {
+        return new TokenBucket(properties.getRequestsPerSecond(), properties.getBurst(), now);
+    }
+
+    private static boolean isAdmissionControlled(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        return (isWithin(path, "/controller/products") || isWithin(path, "/routes/products"))
+                && !path.endsWith("/events");
+    }
+
+    /**
+     * Whether the path is the prefix or below it, matching whole segments so that {@code /routes/productsearch} isn't
+     * under {@code /routes/products}.
+     */
+    private static boolean isWithin(String path, String prefix) {
+        return path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/');
+    }
+
+    private static boolean isLongLived(ServerHttpRequest request) {
+        HttpMethod method = request.getMethod();
+        if (method == HttpMethod.GET) {
+            return ProductMediaTypes.streaming(request.getHeaders().getAccept()).isPresent();
+        }
+        return method == HttpMethod.POST && request.getPath().pathWithinApplication().value().endsWith("/bulk");
+    }
+
+    private String clientId(ServerHttpRequest request) {
+        if (properties.isTrustClientIdHeader()) {
+            String clientId = request.getHeaders().getFirst(properties.getClientIdHeader());
+            if (clientId != null) {
+                return clientId;
+            }
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getHostString() : "anonymous";
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, Duration retryAfter) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ceilSeconds(retryAfter))));
+        return response.setComplete();
+    }
+
+    private static long ceilSeconds(Duration duration) {
+        return duration.plusNanos(999_999_999).getSeconds();
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.ashimjk.reactiveapi.product.admission;
+
+/**
+ * Limit on requests in flight. When adaptive, it is lowered multiplicatively while the smoothed latency is above the
+ * target, at most once per target latency so a burst of slow responses counts once, and raised by one for every fast
+ * response while the limit is actually being used.
+ */
+class ConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final boolean adaptive;
+    private final long targetLatencyNanos;
+
+    private int limit;
+    private int inFlight;
+    private double smoothedLatencyNanos;
+    private long lastDecreaseAt;
+
+    /**
+     * A limit starting at the maximum, created at {@code now} on the clock later passed to {@link #release}.
+     */
+    ConcurrencyLimit(AdmissionProperties properties, long now) {
+        this.minLimit = Math.min(properties.getMinConcurrency(), properties.getMaxConcurrency());
+        this.maxLimit = properties.getMaxConcurrency();
+        this.adaptive = properties.isAdaptive();
+        this.targetLatencyNanos = properties.getTargetLatency().toNanos();
+        this.limit = maxLimit;
+        this.lastDecreaseAt = now;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Returns a permit. The latency of the request only counts when it ran to completion.
+     */
+    synchronized void release(long latencyNanos, boolean completed, long now) {
+        inFlight--;
+        if (!adaptive || !completed) {
+            return;
+        }
+
+        smoothedLatencyNanos = smoothedLatencyNanos == 0
+                ? latencyNanos
+                : smoothedLatencyNanos + SMOOTHING * (latencyNanos - smoothedLatencyNanos);
+
+        if (smoothedLatencyNanos > targetLatencyNanos) {
+            if (now - lastDecreaseAt >= targetLatencyNanos) {
+                limit = Math.max(minLimit, (int) (limit * BACKOFF_RATIO));
+                lastDecreaseAt = now;
+            }
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    synchronized int limit() {
+        return limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+}
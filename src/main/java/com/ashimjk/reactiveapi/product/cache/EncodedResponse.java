@@ -0,0 +1,112 @@
+package com.ashimjk.reactiveapi.product.cache;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductETags;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A JSON response body encoded once, with its gzip copy if one was made, and the response headers that go with it. The
+ * gzip copy is sent with its own ETag.
+ * <p>
+ * The bodies are read-only direct buffers shared by every response written from them: each response wraps its own
+ * view without copying, and direct memory goes to the socket without the copy a heap buffer needs.
+ */
+public final class EncodedResponse {
+
+    private static final String GZIP = "gzip";
+
+    private final Product source;
+    private final ByteBuffer json;
+    private final ByteBuffer gzip;
+    private final HttpHeaders headers;
+
+    EncodedResponse(Product source, byte[] json, byte[] gzip, HttpHeaders headers) {
+        this.source = source;
+        this.json = direct(json);
+        this.gzip = gzip == null ? null : direct(gzip);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * Whether to answer a request with these headers from the gzip copy.
+     */
+    public boolean isGzipFor(HttpHeaders requestHeaders) {
+        return gzip != null && acceptsGzip(requestHeaders.get(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    public HttpHeaders headers(boolean gzipped) {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.addAll(headers);
+        responseHeaders.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip != null) {
+            responseHeaders.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (gzipped) {
+            responseHeaders.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            if (headers.getETag() != null) {
+                responseHeaders.setETag(ProductETags.encoded(headers.getETag(), GZIP));
+            }
+        }
+        return responseHeaders;
+    }
+
+    public DataBuffer body(boolean gzipped) {
+        return DefaultDataBufferFactory.sharedInstance.wrap((gzipped ? gzip : json).duplicate());
+    }
+
+    boolean isEncodedFrom(Product product) {
+        return source == product;
+    }
+
+    /**
+     * Bytes held by the bodies.
+     */
+    int size() {
+        return json.capacity() + (gzip == null ? 0 : gzip.capacity());
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header lists gzip, or any coding, without a zero quality.
+     */
+    static boolean acceptsGzip(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String header : acceptEncoding) {
+            for (String coding : header.split(",")) {
+                String[] parameters = coding.split(";");
+                String name = parameters[0].trim();
+                if ((name.equalsIgnoreCase(GZIP) || name.equals("*")) && !zeroQuality(parameters)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean zeroQuality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+        return buffer.flip().asReadOnlyBuffer();
+    }
+
+}
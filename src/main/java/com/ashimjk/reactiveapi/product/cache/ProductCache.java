@@ -0,0 +1,103 @@
+package com.ashimjk.reactiveapi.product.cache;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of products by id.
+ * <p>
+ * Cached instances are shared between requests and must not be mutated by callers.
+ */
+@Component
+@EnableConfigurationProperties(ProductCacheProperties.class)
+public class ProductCache implements MeterBinder {
+
+    private final AsyncCache<String, Product> cache;
+    private final AtomicLong joinedLoads = new AtomicLong();
+
+    public ProductCache(ProductCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(properties.getMaximumSize())
+                             .expireAfterWrite(properties.getExpireAfterWrite())
+                             .recordStats()
+                             .buildAsync();
+    }
+
+    /**
+     * Returns the cached product, or loads it once with the given loader. Concurrent misses of one id share the load
+     * in flight. Empty results are not cached.
+     */
+    public Mono<Product> get(String id, Function<String, Mono<Product>> loader) {
+        return Mono.fromFuture(() -> {
+            boolean[] loading = new boolean[1];
+            CompletableFuture<Product> product = cache.get(id, (key, executor) -> {
+                loading[0] = true;
+                return loader.apply(key).toFuture();
+            });
+            if (!loading[0] && !product.isDone()) {
+                joinedLoads.incrementAndGet();
+            }
+            // thenApply gives every subscriber its own future, so a cancelled request can't cancel the shared load
+            return product.thenApply(Function.identity());
+        });
+    }
+
+    /**
+     * Returns the cached products by id, loading all the missing ones with a single call to the loader. Ids the loader
+     * doesn't return are left out of the map and not cached.
+     */
+    public Mono<Map<String, Product>> getAll(Collection<String> ids, Function<List<String>, Flux<Product>> loader) {
+        return Mono.fromFuture(() -> cache.getAll(ids, (keys, executor) -> {
+                                              List<String> missingIds = new ArrayList<>();
+                                              keys.forEach(missingIds::add);
+                                              return loader.apply(missingIds).collectMap(Product::getId).toFuture();
+                                          })
+                                          .thenApply(Function.identity()));
+    }
+
+    public void put(Product product) {
+        cache.put(product.getId(), CompletableFuture.completedFuture(product));
+    }
+
+    public void evict(String id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Lookups that missed while the product was already being loaded and waited for that load instead of their own.
+     */
+    public long joinedLoads() {
+        return joinedLoads.get();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "product");
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.ashimjk.reactiveapi.product.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.cache")
+public class ProductCacheProperties {
+
+    /**
+     * Maximum number of products held before the least recently used ones are evicted.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a product stays cached after it was loaded or written.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+}
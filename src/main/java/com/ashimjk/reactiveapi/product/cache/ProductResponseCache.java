@@ -0,0 +1,168 @@
+package com.ashimjk.reactiveapi.product.cache;
+
+import com.ashimjk.reactiveapi.product.codec.ProductMediaTypes;
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductETags;
+import com.ashimjk.reactiveapi.product.model.ProductPage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * JSON responses of single products and of the first page of the listing, encoded once and written as bytes until
+ * the next change, so the hottest reads skip Jackson altogether.
+ * <p>
+ * A product's bytes are kept with the instance they were encoded from and only served while the product lookup still
+ * returns that instance, so they are exactly as fresh as the product cache. Pages are few, one per path the first
+ * page is served under; a page encoded from a query that started before a change is dropped rather than cached.
+ * {@code ProductService} evicts a product's response, and every page, on each change. Products are bounded by the
+ * bytes they hold, evicting the least recently used first.
+ */
+@Component
+@EnableConfigurationProperties(ProductResponseCacheProperties.class)
+public class ProductResponseCache implements MeterBinder {
+
+    private final ProductResponseCacheProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, EncodedResponse> products;
+    private final ConcurrentMap<String, EncodedResponse> pages = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+
+    public ProductResponseCache(ProductResponseCacheProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.products = Caffeine.newBuilder()
+                                .maximumWeight(properties.getMaximumSize().toBytes())
+                                .<String, EncodedResponse>weigher((id, response) -> response.size())
+                                .expireAfterWrite(properties.getExpireAfterWrite())
+                                .recordStats()
+                                .build();
+    }
+
+    /**
+     * Whether a request accepting these media types can be answered with cached JSON.
+     */
+    public boolean serves(List<MediaType> accept) {
+        return properties.isEnabled() && APPLICATION_JSON.equals(ProductMediaTypes.negotiate(accept));
+    }
+
+    /**
+     * The encoded product, loading and encoding it on a miss. Completes empty when there is no such product.
+     */
+    public Mono<EncodedResponse> product(String id, Function<String, Mono<Product>> loader) {
+        return loader.apply(id).map(product -> {
+            EncodedResponse cached = products.getIfPresent(id);
+            if (cached != null && cached.isEncodedFrom(product)) {
+                return cached;
+            }
+            EncodedResponse encoded = encode(product, product, ProductETags.headers(product, APPLICATION_JSON));
+            products.put(id, encoded);
+            return encoded;
+        });
+    }
+
+    /**
+     * The encoded first page for a request without query parameters, loading and encoding it on a miss.
+     */
+    public Mono<EncodedResponse> firstPage(URI requestUri, Supplier<Mono<ProductPage>> loader) {
+        String path = requestUri.getRawPath();
+        return Mono.defer(() -> {
+            EncodedResponse cached = pages.get(path);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            // caching in a compute on the path can't interleave with the clear that follows a change
+            long changesBeforeLoad = changes.get();
+            return loader.get()
+                         .map(page -> encode(null, page.getProducts(), page.headers(requestUri, APPLICATION_JSON)))
+                         .doOnNext(encoded -> pages.compute(
+                                 path,
+                                 (unused, current) -> changes.get() == changesBeforeLoad ? encoded : current
+                         ));
+        });
+    }
+
+    /**
+     * Drops the product's response and every page, which may all show it.
+     */
+    public void evict(String id) {
+        changes.incrementAndGet();
+        products.invalidate(id);
+        pages.clear();
+    }
+
+    public void evictAll() {
+        changes.incrementAndGet();
+        products.invalidateAll();
+        pages.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "product.responses");
+        Gauge.builder("product.responses.size", this, ProductResponseCache::size)
+             .description("Bytes held by cached product responses")
+             .baseUnit("bytes")
+             .register(registry);
+    }
+
+    private long size() {
+        long pageBytes = pages.values().stream().mapToLong(EncodedResponse::size).sum();
+        return products.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L) + pageBytes;
+    }
+
+    private EncodedResponse encode(Product source, Object value, HttpHeaders headers) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new EncodingException("JSON encoding error: " + e.getOriginalMessage(), e);
+        }
+
+        byte[] gzip = null;
+        if (properties.isGzip() && json.length >= properties.getGzipMinSize().toBytes()) {
+            gzip = gzip(json);
+            if (gzip.length >= json.length) {
+                gzip = null;
+            }
+        }
+        return new EncodedResponse(source, json, gzip, headers);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.ashimjk.reactiveapi.product.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.response-cache")
+public class ProductResponseCacheProperties {
+
+    /**
+     * Whether JSON responses for single products and the first page are served from pre-encoded bytes.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Encoded bytes held, including compressed copies, before the least recently used products are evicted.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+    /**
+     * How long an encoded response stays cached after it was encoded.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * Whether to keep a gzip copy next to the JSON, for clients that accept it.
+     */
+    private boolean gzip = true;
+
+    /**
+     * Smallest response worth a gzip copy.
+     */
+    private DataSize gzipMinSize = DataSize.ofKilobytes(1);
+
+}
@@ -0,0 +1,127 @@
+package com.ashimjk.reactiveapi.product.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+
+/**
+ * Binary Jackson formats for service-to-service callers, next to the default JSON.
+ * <p>
+ * Smile is registered by default once it is on the classpath, so it is only rebuilt here to share the application's
+ * Jackson settings; CBOR has to be added. The customizer is applied to the server codecs as well as to
+ * {@code WebClient} and {@code WebTestClient}.
+ */
+@Configuration
+public class ProductCodecConfiguration {
+
+    private static final MimeType[] SMILE_MIME_TYPES = {
+            ProductMediaTypes.APPLICATION_SMILE,
+            new MimeType("application", "*+x-jackson-smile")
+    };
+
+    @Bean
+    public CodecCustomizer binaryCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_MIME_TYPES));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE_MIME_TYPES));
+            configurer.customCodecs().register(new CborDecoder(cborMapper));
+            configurer.customCodecs().register(new CborEncoder(cborMapper));
+        };
+    }
+
+    /**
+     * Custom codecs are consulted before the default JSON ones, so CBOR is only used when it is asked for by name.
+     * The Jackson CBOR decoder can't decode to a stream of values; this one buffers the body and reads it either as
+     * a sequence of values or as an array of them.
+     */
+    static class CborDecoder extends Jackson2CborDecoder {
+
+        CborDecoder(ObjectMapper mapper) {
+            super(mapper, APPLICATION_CBOR);
+        }
+
+        @Override
+        public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+            return mimeType != null && super.canDecode(elementType, mimeType);
+        }
+
+        @Override
+        public Flux<Object> decode(
+                Publisher<DataBuffer> input,
+                ResolvableType elementType,
+                MimeType mimeType,
+                Map<String, Object> hints
+        ) {
+            return DataBufferUtils.join(input, getMaxInMemorySize())
+                                  .flatMapIterable(buffer -> readValues(buffer, elementType));
+        }
+
+        private List<Object> readValues(DataBuffer buffer, ResolvableType elementType) {
+            ObjectMapper mapper = getObjectMapper();
+            try (InputStream inputStream = buffer.asInputStream(true)) {
+                return mapper.readerFor(mapper.constructType(elementType.getType()))
+                             .readValues(inputStream)
+                             .readAll();
+            } catch (IOException e) {
+                throw new DecodingException("CBOR decoding error: " + e.getMessage(), e);
+            }
+        }
+
+    }
+
+    /**
+     * Like {@link CborDecoder}, and encodes each value of a publisher on its own since the Jackson CBOR encoder
+     * rejects publishers, including the single-value ones response bodies are written from.
+     */
+    static class CborEncoder extends Jackson2CborEncoder {
+
+        CborEncoder(ObjectMapper mapper) {
+            super(mapper, APPLICATION_CBOR);
+        }
+
+        @Override
+        public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+            return mimeType != null && super.canEncode(elementType, mimeType);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(
+                Publisher<?> inputStream,
+                DataBufferFactory bufferFactory,
+                ResolvableType elementType,
+                MimeType mimeType,
+                Map<String, Object> hints
+        ) {
+            return Flux.from(inputStream)
+                       .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints));
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.ashimjk.reactiveapi.product.codec;
+
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON;
+
+/**
+ * Representations a product, or a list of products, can be read and written as.
+ */
+public final class ProductMediaTypes {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * Supported media types in order of preference, JSON first.
+     */
+    public static final List<MediaType> SUPPORTED = List.of(APPLICATION_JSON, APPLICATION_CBOR, APPLICATION_SMILE);
+
+    /**
+     * Media types a product listing can be streamed as, one document at a time.
+     */
+    @SuppressWarnings("deprecation")
+    public static final List<MediaType> STREAMING = List.of(APPLICATION_NDJSON, APPLICATION_STREAM_JSON);
+
+    private ProductMediaTypes() {
+    }
+
+    /**
+     * The preferred supported media type for the given Accept header, falling back to JSON.
+     */
+    public static MediaType negotiate(List<MediaType> accept) {
+        List<MediaType> acceptable = new ArrayList<>(accept);
+        MediaType.sortBySpecificityAndQuality(acceptable);
+
+        for (MediaType acceptableType : acceptable) {
+            for (MediaType supported : SUPPORTED) {
+                if (acceptableType.isCompatibleWith(supported)) {
+                    return supported;
+                }
+            }
+        }
+        return APPLICATION_JSON;
+    }
+
+    /**
+     * The streaming media type the given Accept header names explicitly, if any. Wildcards don't count, so clients
+     * that accept anything keep getting a JSON array.
+     */
+    public static Optional<MediaType> streaming(List<MediaType> accept) {
+        for (MediaType acceptableType : accept) {
+            for (MediaType streaming : STREAMING) {
+                if (streaming.equalsTypeAndSubtype(acceptableType)) {
+                    return Optional.of(streaming);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+}
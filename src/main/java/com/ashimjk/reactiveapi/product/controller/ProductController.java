@@ -1,78 +1,175 @@
 package com.ashimjk.reactiveapi.product.controller;
 
+import com.ashimjk.reactiveapi.product.cache.EncodedResponse;
+import com.ashimjk.reactiveapi.product.codec.ProductMediaTypes;
 import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductETags;
 import com.ashimjk.reactiveapi.product.model.ProductEvent;
-import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.model.ProductLookup;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsCheck;
+import com.ashimjk.reactiveapi.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
-@RequestMapping("/controller/products")
+@RequestMapping(
+        value = "/controller/products",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ProductMediaTypes.APPLICATION_SMILE_VALUE}
+)
 public class ProductController {
 
-    private final ProductRepository productRepository;
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final ProductService productService;
 
     @GetMapping
-    public Flux<Product> products() {
-        return productRepository.findAll();
+    public Mono<ResponseEntity<?>> products(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            ServerHttpRequest request
+    ) {
+        if (request.getURI().getRawQuery() == null && productService.servesEncoded(request.getHeaders().getAccept())) {
+            return productService
+                    .findEncodedFirstPage(request.getURI())
+                    .<ResponseEntity<?>>map(response -> encoded(request, response));
+        }
+
+        ProductFilter filter = ProductFilter.of(name, namePrefix, minPrice, maxPrice, sort);
+        MediaType contentType = ProductMediaTypes.negotiate(request.getHeaders().getAccept());
+
+        return productService
+                .findPage(filter, after, limit)
+                .<ResponseEntity<?>>map(page -> ResponseEntity.ok()
+                                                              .headers(page.headers(request.getURI(), contentType))
+                                                              .contentType(contentType)
+                                                              .body(page.getProducts()));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, "application/stream+json"})
+    public Flux<Product> streamProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        ProductFilter filter = ProductFilter.of(name, namePrefix, minPrice, maxPrice, sort);
+
+        return productService.stream(filter, after, limit);
+    }
+
+    @GetMapping("search")
+    public Mono<List<Product>> searchProducts(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        return productService.search(q, limit);
+    }
+
+    @GetMapping("stats")
+    public Mono<ProductStats> stats(@RequestParam(required = false) String mode) {
+        return productService.stats(mode);
+    }
+
+    @GetMapping("stats/check")
+    public Mono<ProductStatsCheck> checkStats() {
+        return productService.checkStats();
     }
 
     @GetMapping("{id}")
-    public Mono<ResponseEntity<Product>> productById(@PathVariable String id) {
-        return productRepository
+    public Mono<ResponseEntity<?>> productById(@PathVariable String id, ServerHttpRequest request) {
+        if (productService.servesEncoded(request.getHeaders().getAccept())) {
+            return productService
+                    .findEncodedById(id)
+                    .<ResponseEntity<?>>map(response -> encoded(request, response))
+                    .defaultIfEmpty(ResponseEntity.notFound().build());
+        }
+
+        MediaType contentType = ProductMediaTypes.negotiate(request.getHeaders().getAccept());
+
+        return productService
                 .findById(id)
-                .map(ResponseEntity::ok)
+                .<ResponseEntity<?>>map(product -> ResponseEntity.ok()
+                                                                 .headers(ProductETags.headers(product, contentType))
+                                                                 .contentType(contentType)
+                                                                 .body(product))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("_batch")
+    public Mono<ProductLookup> productsById(@RequestBody List<String> ids) {
+        return productService.findAllById(ids);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<Product> createProduct(@RequestBody Product product) {
-        return productRepository.save(product);
+        return productService.save(product);
     }
 
     @PutMapping("{id}")
     public Mono<ResponseEntity<Product>> updateProduct(
             @PathVariable String id,
-            @RequestBody Product product
+            @RequestBody Product product,
+            ServerHttpRequest request
     ) {
-        return productRepository
-                .findById(id)
-                .flatMap(existingProduct -> {
-                    existingProduct.setName(product.getName());
-                    existingProduct.setPrice(product.getPrice());
-                    return productRepository.save(existingProduct);
-                })
-                .map(ResponseEntity::ok)
+        Long expectedVersion = ProductETags.expectedVersion(request.getHeaders().getIfMatch());
+        MediaType contentType = ProductMediaTypes.negotiate(request.getHeaders().getAccept());
+
+        return productService
+                .update(id, product, expectedVersion)
+                .map(updatedProduct -> ResponseEntity.ok()
+                                                     .headers(ProductETags.headers(updatedProduct, contentType))
+                                                     .contentType(contentType)
+                                                     .body(updatedProduct))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("{id}")
-    public Mono<ResponseEntity<Void>> deleteProduct(@PathVariable String id) {
-        return productRepository
-                .findById(id)
-                .flatMap(p -> productRepository.deleteById(p.getId()))
-                .then(Mono.just(ResponseEntity.ok().<Void>build()))
-                .defaultIfEmpty(ResponseEntity.noContent().build());
+    public Mono<ResponseEntity<Void>> deleteProduct(@PathVariable String id, ServerHttpRequest request) {
+        Long expectedVersion = ProductETags.expectedVersion(request.getHeaders().getIfMatch());
+
+        return productService
+                .delete(id, expectedVersion)
+                .map(deletedProduct -> ResponseEntity.ok().<Void>build())
+                .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping
     public Mono<Void> deleteAllProduct() {
-        return productRepository.deleteAll();
+        return productService.deleteAll();
     }
 
     @GetMapping(value = "events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<ProductEvent> events() {
-        return Flux.interval(Duration.ofSeconds(1))
-                   .map(val -> new ProductEvent(val.toString(), "Product Event"));
+    public Flux<ServerSentEvent<ProductEvent>> events(
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId
+    ) {
+        return productService.events(lastEventId);
+    }
+
+    private static ResponseEntity<DataBuffer> encoded(ServerHttpRequest request, EncodedResponse response) {
+        boolean gzipped = response.isGzipFor(request.getHeaders());
+
+        return ResponseEntity.ok()
+                             .headers(response.headers(gzipped))
+                             .body(response.body(gzipped));
     }
 
 }
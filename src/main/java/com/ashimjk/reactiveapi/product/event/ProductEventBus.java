@@ -0,0 +1,210 @@
+package com.ashimjk.reactiveapi.product.event;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process hub that multicasts product changes to every event stream subscriber.
+ * <p>
+ * All subscribers share one bounded replay buffer. Each subscriber drains it into its own bounded buffer, so a slow
+ * subscriber is handled by the configured overflow policy instead of holding on to the shared history.
+ * <p>
+ * Event ids are increasing numbers, so a subscriber that reconnects with the id of the last event it saw gets only the
+ * events after it while they are still in the replay buffer. When they are not, or the id is unknown, for instance
+ * from before a restart, it gets a {@link ProductEventType#RESET} event first and then only new events.
+ * <p>
+ * Server-sent event streams share one heartbeat timer, which runs while any of them is open. A stream gets a heartbeat
+ * on a tick only when it sent nothing since the previous one, so busy streams carry none and an idle one carries one
+ * within twice the interval of its last event.
+ */
+@Component
+@EnableConfigurationProperties(ProductEventProperties.class)
+public class ProductEventBus implements MeterBinder {
+
+    private static final ServerSentEvent<ProductEvent> HEARTBEAT =
+            ServerSentEvent.<ProductEvent>builder().comment("heartbeat").build();
+
+    private final ProductEventProperties properties;
+    private final Sinks.Many<ProductEvent> sink;
+    private final Flux<Long> heartbeats;
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong resumed = new AtomicLong();
+    private final AtomicLong reset = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private long sequence;
+
+    public ProductEventBus(ProductEventProperties properties) {
+        this.properties = properties;
+        this.sink = Sinks.many().replay().limit(properties.getReplaySize());
+        this.heartbeats = Flux.defer(() -> Flux.interval(properties.getHeartbeatInterval())).share();
+    }
+
+    public synchronized void publish(ProductEventType eventType, Product product) {
+        ProductEvent event = new ProductEvent(String.valueOf(++sequence), eventType, product);
+        sink.emitNext(event, Sinks.EmitFailureHandler.FAIL_FAST);
+    }
+
+    public Flux<ProductEvent> events() {
+        return events(null);
+    }
+
+    /**
+     * Events after the one with the given id, or the replayed and new events when there is no id.
+     */
+    public Flux<ProductEvent> events(String lastEventId) {
+        return withOverflowPolicy(coalesced(Flux.defer(() -> resumedAfter(lastEventId))))
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signalType -> subscribers.decrementAndGet());
+    }
+
+    /**
+     * Events as server-sent events carrying their ids, interleaved with heartbeat comments while the stream is idle.
+     */
+    public Flux<ServerSentEvent<ProductEvent>> serverSentEvents(String lastEventId) {
+        Flux<ServerSentEvent<ProductEvent>> events =
+                events(lastEventId).map(event -> ServerSentEvent.builder(event).id(event.getEventId()).build());
+
+        if (properties.getHeartbeatInterval().isZero()) {
+            return events;
+        }
+
+        return Flux.defer(() -> {
+            AtomicBoolean sent = new AtomicBoolean();
+            Flux<ServerSentEvent<ProductEvent>> idleHeartbeats = heartbeats.onBackpressureDrop()
+                                                                           .filter(tick -> !sent.getAndSet(false))
+                                                                           .map(tick -> HEARTBEAT);
+            return Flux.merge(events.doOnNext(event -> sent.set(true)), idleHeartbeats);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.events.subscribers", subscribers, AtomicInteger::get)
+             .description("Active product event stream subscribers")
+             .register(registry);
+        FunctionCounter.builder("product.events.published", this, ProductEventBus::sequenceValue)
+                       .description("Product events published to the bus")
+                       .register(registry);
+        FunctionCounter.builder("product.events.dropped", dropped, AtomicLong::get)
+                       .description("Product events dropped from full subscriber buffers")
+                       .register(registry);
+        FunctionCounter.builder("product.events.coalesced", coalesced, AtomicLong::get)
+                       .description("Product events replaced by a later event of the same product")
+                       .register(registry);
+        FunctionCounter.builder("product.events.resumes", resumed, AtomicLong::get)
+                       .tag("outcome", "resumed")
+                       .description("Subscribers that reconnected with a last event id")
+                       .register(registry);
+        FunctionCounter.builder("product.events.resumes", reset, AtomicLong::get)
+                       .tag("outcome", "reset")
+                       .description("Subscribers that reconnected with a last event id")
+                       .register(registry);
+    }
+
+    private Flux<ProductEvent> resumedAfter(String lastEventId) {
+        if (lastEventId == null) {
+            return sink.asFlux();
+        }
+
+        long current = sequenceValue();
+        long after = parseSequence(lastEventId);
+        if (after >= 0 && after >= current - properties.getReplaySize() && after <= current) {
+            resumed.incrementAndGet();
+            return sink.asFlux().filter(event -> sequence(event) > after);
+        }
+
+        reset.incrementAndGet();
+        return sink.asFlux()
+                   .filter(event -> sequence(event) > current)
+                   .startWith(new ProductEvent(String.valueOf(current), ProductEventType.RESET, null));
+    }
+
+    private Flux<ProductEvent> coalesced(Flux<ProductEvent> events) {
+        Duration coalesceWindow = properties.getCoalesceWindow();
+        if (coalesceWindow.isZero()) {
+            return events;
+        }
+
+        return events.buffer(coalesceWindow).flatMapIterable(this::latestPerProduct);
+    }
+
+    /**
+     * The last event of each product, in id order. An event about no single product, like {@code DELETED_ALL},
+     * replaces every event before it.
+     */
+    private Collection<ProductEvent> latestPerProduct(List<ProductEvent> events) {
+        if (events.size() < 2) {
+            return events;
+        }
+
+        Map<String, ProductEvent> latest = new LinkedHashMap<>();
+        for (ProductEvent event : events) {
+            String productId = event.getProduct() != null ? event.getProduct().getId() : null;
+            if (productId == null) {
+                latest.clear();
+            }
+            latest.remove(productId);
+            latest.put(productId, event);
+        }
+        coalesced.addAndGet(events.size() - latest.size());
+        return latest.values();
+    }
+
+    private Flux<ProductEvent> withOverflowPolicy(Flux<ProductEvent> events) {
+        int bufferSize = properties.getSubscriberBufferSize();
+
+        switch (properties.getOverflowPolicy()) {
+            case LATEST_ONLY:
+                return events.onBackpressureLatest();
+            case DISCONNECT:
+                return events.onBackpressureBuffer(bufferSize, BufferOverflowStrategy.ERROR);
+            case DROP_OLDEST:
+            default:
+                return events.onBackpressureBuffer(
+                        bufferSize,
+                        droppedEvent -> dropped.incrementAndGet(),
+                        BufferOverflowStrategy.DROP_OLDEST
+                );
+        }
+    }
+
+    private synchronized long sequenceValue() {
+        return sequence;
+    }
+
+    private static long sequence(ProductEvent event) {
+        return Long.parseLong(event.getEventId());
+    }
+
+    private static long parseSequence(String eventId) {
+        try {
+            return Long.parseLong(eventId.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
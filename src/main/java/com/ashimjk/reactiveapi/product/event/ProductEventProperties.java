@@ -0,0 +1,57 @@
+package com.ashimjk.reactiveapi.product.event;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.events")
+public class ProductEventProperties {
+
+    /**
+     * Number of most recent events replayed to a new subscriber, and kept for subscribers resuming from a last event
+     * id.
+     */
+    private int replaySize = 256;
+
+    /**
+     * Number of events buffered for a subscriber that reads slower than events are published.
+     */
+    private int subscriberBufferSize = 256;
+
+    /**
+     * What happens to a subscriber whose buffer is full.
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+    /**
+     * Interval of the comments sent on idle server-sent event streams to keep connections open, zero to send none.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * Window within which a subscriber gets only the latest event of each product, zero to send every event.
+     */
+    private Duration coalesceWindow = Duration.ZERO;
+
+    public enum OverflowPolicy {
+
+        /**
+         * Discard the oldest buffered event to make room for the new one.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Keep only the latest event until the subscriber asks for more.
+         */
+        LATEST_ONLY,
+
+        /**
+         * Terminate the subscriber's stream with an overflow error.
+         */
+        DISCONNECT
+
+    }
+
+}
@@ -4,17 +4,33 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Data
 @Document
+@CompoundIndex(name = "name_price", def = "{'name': 1, 'price': 1}")
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
 
     @Id
     private String id;
+    @Indexed
     private String name;
+    @Indexed
     private Double price;
 
+    @Version
+    private Long version;
+    private Instant lastModified;
+
+    public Product(String id, String name, Double price) {
+        this(id, name, price, null, null);
+    }
+
 }
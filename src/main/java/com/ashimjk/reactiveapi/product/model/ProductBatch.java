@@ -0,0 +1,17 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import lombok.*;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatch {
+
+    private long batch;
+    private int inserted;
+    private String firstId;
+    private String lastId;
+
+}
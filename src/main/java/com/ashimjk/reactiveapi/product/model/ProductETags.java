@@ -0,0 +1,95 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import com.ashimjk.reactiveapi.product.codec.ProductMediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Entity tags derived from product versions, for conditional requests.
+ * <p>
+ * Every representation gets its own strong tag, the version followed by the media type and any content coding, such
+ * as {@code "3-json"}, {@code "3-cbor"} or {@code "3-json-gzip"}, since their bytes differ. {@code If-Match} only
+ * compares the version, so a tag of any representation of the current version allows a write.
+ */
+public final class ProductETags {
+
+    private static final long NO_MATCH = -1;
+
+    private ProductETags() {
+    }
+
+    /**
+     * ETag and Last-Modified of the product written as the given media type, plus {@code Vary: Accept} since the
+     * body is negotiated. The ETag is left out for a product that has never been versioned.
+     */
+    public static HttpHeaders headers(Product product, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        if (product.getVersion() != null) {
+            headers.setETag(tag(product.getVersion().toString(), contentType));
+        }
+        if (product.getLastModified() != null) {
+            headers.setLastModified(product.getLastModified());
+        }
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        return headers;
+    }
+
+    /**
+     * Strong ETag of a list written as the given media type, changing whenever a product in it is added, removed or
+     * updated.
+     */
+    public static String of(List<Product> products, MediaType contentType) {
+        StringBuilder versions = new StringBuilder();
+        for (Product product : products) {
+            versions.append(product.getId()).append(':').append(product.getVersion()).append(';');
+        }
+        return tag(DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)), contentType);
+    }
+
+    /**
+     * The tag of the same representation sent with the given content coding, e.g. {@code gzip}.
+     */
+    public static String encoded(String etag, String contentCoding) {
+        return etag.substring(0, etag.length() - 1) + '-' + contentCoding + '"';
+    }
+
+    /**
+     * Version a conditional write requires, or null when the write is unconditional ({@code If-Match} absent or
+     * {@code *}). A tag that is not a product version yields a version no product has.
+     */
+    public static Long expectedVersion(List<String> ifMatch) {
+        if (ifMatch.isEmpty() || ifMatch.contains("*")) {
+            return null;
+        }
+
+        String etag = ifMatch.get(0);
+        if (etag.startsWith("W/")) {
+            // weak tags never satisfy If-Match
+            return NO_MATCH;
+        }
+
+        try {
+            String opaqueTag = etag.substring(1, etag.length() - 1);
+            int representation = opaqueTag.indexOf('-');
+            return Long.valueOf(representation < 0 ? opaqueTag : opaqueTag.substring(0, representation));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return NO_MATCH;
+        }
+    }
+
+    private static String tag(String value, MediaType contentType) {
+        return "\"" + value + '-' + representation(contentType) + '"';
+    }
+
+    private static String representation(MediaType contentType) {
+        if (ProductMediaTypes.APPLICATION_SMILE.equalsTypeAndSubtype(contentType)) {
+            return "smile";
+        }
+        return contentType.getSubtype();
+    }
+
+}
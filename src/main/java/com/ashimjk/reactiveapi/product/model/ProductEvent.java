@@ -10,6 +10,7 @@ import lombok.*;
 public class ProductEvent {
 
     private String eventId;
-    private String eventType;
+    private ProductEventType eventType;
+    private Product product;
 
 }
@@ -0,0 +1,15 @@
+package com.ashimjk.reactiveapi.product.model;
+
+public enum ProductEventType {
+
+    CREATED,
+    UPDATED,
+    DELETED,
+    DELETED_ALL,
+
+    /**
+     * Sent first to a subscriber that couldn't be resumed from its last event id, which should reload its products.
+     */
+    RESET
+
+}
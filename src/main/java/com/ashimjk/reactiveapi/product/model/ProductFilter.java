@@ -0,0 +1,78 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.Set;
+
+/**
+ * Criteria and order of a product listing. Every criterion is optional; all given ones must match.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ProductFilter {
+
+    private static final Sort BY_ID = Sort.by("id");
+    private static final Set<String> SORTABLE = Set.of("id", "name", "price");
+
+    public static final ProductFilter NONE = new ProductFilter(null, null, null, null, BY_ID);
+
+    private final String name;
+    private final String namePrefix;
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final Sort sort;
+
+    /**
+     * Builds a filter from request parameters. The sort is given as {@code property[,asc|desc]} on id, name or
+     * price; ties are broken by id so that the order is stable.
+     */
+    public static ProductFilter of(String name, String namePrefix, Double minPrice, Double maxPrice, String sort) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new ServerWebInputException("Query parameter 'minPrice' must not be greater than 'maxPrice'");
+        }
+        return new ProductFilter(name, namePrefix, minPrice, maxPrice, parseSort(sort));
+    }
+
+    /**
+     * Whether the filter matches every product in id order, like an unfiltered listing.
+     */
+    public boolean isEmpty() {
+        return name == null && namePrefix == null && minPrice == null && maxPrice == null && isSortedById();
+    }
+
+    /**
+     * Whether products come in ascending id order, which is what an id cursor can continue from.
+     */
+    public boolean isSortedById() {
+        return BY_ID.equals(sort);
+    }
+
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return BY_ID;
+        }
+
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE.contains(property) || parts.length > 2) {
+            throw new ServerWebInputException("Query parameter 'sort' must be one of " + SORTABLE + ", optionally followed by ',asc' or ',desc'");
+        }
+
+        Sort.Direction direction = parts.length == 2
+                ? Sort.Direction.fromOptionalString(parts[1].trim())
+                               .orElseThrow(() -> new ServerWebInputException("Sort direction must be 'asc' or 'desc'"))
+                : Sort.Direction.ASC;
+
+        Sort byProperty = Sort.by(direction, property);
+        return property.equals("id") ? byProperty : byProperty.and(BY_ID);
+    }
+
+}
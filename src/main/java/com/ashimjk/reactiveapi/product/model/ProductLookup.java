@@ -0,0 +1,20 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Products found for a batch of ids, in the order they were asked for, and the ids that weren't found.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookup {
+
+    private List<Product> products;
+    private List<String> missing;
+
+}
@@ -0,0 +1,48 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * One keyset page of products ordered by id, with the cursor to continue from.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ProductPage {
+
+    private final List<Product> products;
+    private final int limit;
+    private final String next;
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * The ETag of the page written as the given media type and {@code Vary: Accept}, plus a link to the next page of
+     * the given request unless this is the last page.
+     */
+    public HttpHeaders headers(URI requestUri, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ProductETags.of(products, contentType));
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        if (hasNext()) {
+            String nextUri = UriComponentsBuilder.fromPath(requestUri.getRawPath())
+                                                 .query(requestUri.getRawQuery())
+                                                 .replaceQueryParam("after", next)
+                                                 .replaceQueryParam("limit", limit)
+                                                 .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import lombok.*;
+
+/**
+ * A product listing asked for in a message rather than in query parameters, with the same optional criteria, order,
+ * cursor and limit.
+ */
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductQuery {
+
+    private String name;
+    private String namePrefix;
+    private Double minPrice;
+    private Double maxPrice;
+    private String sort;
+    private String after;
+    private Integer limit;
+
+    public ProductFilter filter() {
+        return ProductFilter.of(name, namePrefix, minPrice, maxPrice, sort);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Count, minimum, maximum, average and percentiles of the prices of the products that have one. Percentiles are
+ * nearest-rank and keyed by name, {@code p50} for 0.5 or {@code p99.9} for 0.999.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStats {
+
+    private ProductStatsMode mode;
+    private long count;
+    private Double min;
+    private Double max;
+    private Double avg;
+    private Map<String, Double> percentiles;
+
+    public static ProductStats empty(ProductStatsMode mode) {
+        return new ProductStats(mode, 0, null, null, null, new LinkedHashMap<>());
+    }
+
+    /**
+     * Exact statistics of prices sorted in ascending order.
+     */
+    public static ProductStats ofSorted(ProductStatsMode mode, double[] prices, List<Double> percentiles) {
+        if (prices.length == 0) {
+            return empty(mode);
+        }
+
+        double sum = 0;
+        for (double price : prices) {
+            sum += price;
+        }
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double percentile : percentiles) {
+            values.put(percentileName(percentile), prices[(int) rank(percentile, prices.length) - 1]);
+        }
+        return new ProductStats(mode, prices.length, prices[0], prices[prices.length - 1], sum / prices.length, values);
+    }
+
+    /**
+     * One-based position of the percentile in {@code count} sorted values, by nearest rank.
+     */
+    public static long rank(double percentile, long count) {
+        // the epsilon keeps 0.9 * 10 from rounding up to rank 10
+        return Math.min(count, Math.max(1, (long) Math.ceil(percentile * count - 1e-9)));
+    }
+
+    public static String percentileName(double percentile) {
+        return "p" + BigDecimal.valueOf(percentile).movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Running statistics side by side with aggregated ones, and where they disagree. Counts, minimums and maximums must
+ * be equal, averages equal up to rounding, and running percentiles within the relative accuracy of the aggregated
+ * ones. The two are read one after the other, so writes in between show up as differences.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStatsCheck {
+
+    private static final double ROUNDING = 1e-9;
+
+    private boolean consistent;
+    private List<String> differences;
+    private ProductStats running;
+    private ProductStats aggregate;
+
+    public static ProductStatsCheck of(ProductStats running, ProductStats aggregate, double relativeAccuracy) {
+        List<String> differences = new ArrayList<>();
+        if (running.getCount() != aggregate.getCount()) {
+            differences.add(difference("count", running.getCount(), aggregate.getCount()));
+        }
+        if (!Objects.equals(running.getMin(), aggregate.getMin())) {
+            differences.add(difference("min", running.getMin(), aggregate.getMin()));
+        }
+        if (!Objects.equals(running.getMax(), aggregate.getMax())) {
+            differences.add(difference("max", running.getMax(), aggregate.getMax()));
+        }
+        if (!within(running.getAvg(), aggregate.getAvg(), ROUNDING)) {
+            differences.add(difference("avg", running.getAvg(), aggregate.getAvg()));
+        }
+        for (Map.Entry<String, Double> percentile : aggregate.getPercentiles().entrySet()) {
+            Double value = running.getPercentiles().get(percentile.getKey());
+            if (!within(value, percentile.getValue(), relativeAccuracy + ROUNDING)) {
+                differences.add(difference(percentile.getKey(), value, percentile.getValue()));
+            }
+        }
+        return new ProductStatsCheck(differences.isEmpty(), differences, running, aggregate);
+    }
+
+    private static boolean within(Double actual, Double expected, double relativeError) {
+        if (actual == null || expected == null) {
+            return actual == null && expected == null;
+        }
+        return Math.abs(actual - expected) <= relativeError * Math.abs(expected);
+    }
+
+    private static String difference(String statistic, Object running, Object aggregate) {
+        return statistic + ": running " + running + ", aggregate " + aggregate;
+    }
+
+}
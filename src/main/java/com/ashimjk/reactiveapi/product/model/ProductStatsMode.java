@@ -0,0 +1,21 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import java.util.Locale;
+
+/**
+ * Where price statistics come from: the running statistics kept in memory, or an aggregation over the collection.
+ */
+public enum ProductStatsMode {
+
+    RUNNING,
+    AGGREGATE;
+
+    /**
+     * The mode named by a query parameter, case insensitive, or {@link #RUNNING} when it is null. Fails with
+     * {@link IllegalArgumentException} for any other name.
+     */
+    public static ProductStatsMode of(String name) {
+        return name == null ? RUNNING : valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+}
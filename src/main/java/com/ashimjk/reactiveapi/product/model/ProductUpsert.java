@@ -0,0 +1,28 @@
+package com.ashimjk.reactiveapi.product.model;
+
+import lombok.*;
+
+/**
+ * The answer to one product of an upsert stream: its zero-based position in the stream and either the stored product
+ * or why it couldn't be read or stored.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductUpsert {
+
+    private long index;
+    private Product product;
+    private String error;
+
+    public static ProductUpsert upserted(long index, Product product) {
+        return new ProductUpsert(index, product, null);
+    }
+
+    public static ProductUpsert failed(long index, String error) {
+        return new ProductUpsert(index, null, error);
+    }
+
+}
@@ -1,11 +1,14 @@
 package com.ashimjk.reactiveapi.product.reactive;
 
+import com.ashimjk.reactiveapi.product.codec.ProductMediaTypes;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
-import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
 import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
 import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
@@ -32,15 +35,23 @@ public class EndpointRoutes {
                 .path("/routes/products",
                       builder ->
                               builder.nest(
-                                             accept(APPLICATION_JSON)
-                                                     .or(contentType(APPLICATION_JSON))
+                                             accept(ProductMediaTypes.SUPPORTED.toArray(MediaType[]::new))
+                                                     .or(contentType(ProductMediaTypes.SUPPORTED.toArray(MediaType[]::new)))
+                                                     .or(contentType(APPLICATION_NDJSON))
+                                                     .or(accept(ProductMediaTypes.STREAMING.toArray(MediaType[]::new)))
                                                      .or(accept(TEXT_EVENT_STREAM)),
                                              nestedBuilder ->
                                                      nestedBuilder
                                                              .GET("/events", handler::getProductEvents)
+                                                             .GET("/search", handler::searchProducts)
+                                                             .GET("/stats", handler::getStats)
+                                                             .GET("/stats/check", handler::checkStats)
                                                              .GET("{id}", handler::getProduct)
+                                                             .GET(EndpointRoutes::acceptsStreaming, handler::streamProducts)
                                                              .GET(handler::getAllProducts)
                                                              .PUT("{id}", handler::updateProduct)
+                                                             .POST("/bulk", contentType(APPLICATION_NDJSON), handler::saveProducts)
+                                                             .POST("/_batch", handler::getProductsById)
                                                              .POST(handler::saveProduct)
                                      )
                                      .DELETE("{id}", handler::deleteProduct)
@@ -49,4 +60,8 @@ public class EndpointRoutes {
 
     }
 
+    private static boolean acceptsStreaming(ServerRequest request) {
+        return ProductMediaTypes.streaming(request.headers().accept()).isPresent();
+    }
+
 }
@@ -1,47 +1,143 @@
 package com.ashimjk.reactiveapi.product.reactive;
 
+import com.ashimjk.reactiveapi.product.cache.EncodedResponse;
+import com.ashimjk.reactiveapi.product.codec.ProductMediaTypes;
 import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductBatch;
+import com.ashimjk.reactiveapi.product.model.ProductETags;
 import com.ashimjk.reactiveapi.product.model.ProductEvent;
-import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
+import java.util.List;
 
-import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.web.reactive.function.BodyInserters.fromDataBuffers;
 import static org.springframework.web.reactive.function.BodyInserters.fromValue;
 
 @Component
 @RequiredArgsConstructor
 public class ProductHandler {
 
-    private final ProductRepository repository;
+    private static final ParameterizedTypeReference<List<String>> IDS = new ParameterizedTypeReference<>() {
+    };
 
-    public Mono<ServerResponse> getAllProducts(ServerRequest serverRequest) {
-        Flux<Product> products = repository.findAll();
+    private static final ParameterizedTypeReference<ServerSentEvent<ProductEvent>> SERVER_SENT_EVENTS =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final ProductService service;
+
+    public Mono<ServerResponse> getAllProducts(ServerRequest request) {
+        if (request.uri().getRawQuery() == null && service.servesEncoded(request.headers().accept())) {
+            return service.findEncodedFirstPage(request.uri()).flatMap(response -> encoded(request, response));
+        }
+
+        String after = request.queryParam("after").orElse(null);
+        Integer limit = request.queryParam("limit").map(ProductHandler::parseLimit).orElse(null);
+        MediaType contentType = ProductMediaTypes.negotiate(request.headers().accept());
+
+        return service
+                .findPage(filter(request), after, limit)
+                .flatMap(page ->
+                                 ServerResponse
+                                         .ok()
+                                         .headers(headers -> headers.addAll(page.headers(request.uri(), contentType)))
+                                         .contentType(contentType)
+                                         .body(fromValue(page.getProducts()))
+                );
+    }
+
+    public Mono<ServerResponse> streamProducts(ServerRequest request) {
+        String after = request.queryParam("after").orElse(null);
+        Integer limit = request.queryParam("limit").map(ProductHandler::parseLimit).orElse(null);
 
         return ServerResponse
                 .ok()
-                .contentType(APPLICATION_JSON)
-                .body(products, Product.class);
+                .contentType(ProductMediaTypes.streaming(request.headers().accept()).orElse(APPLICATION_NDJSON))
+                .body(service.stream(filter(request), after, limit), Product.class);
+    }
+
+    public Mono<ServerResponse> searchProducts(ServerRequest request) {
+        String query = request.queryParam("q").orElse(null);
+        Integer limit = request.queryParam("limit").map(ProductHandler::parseLimit).orElse(null);
+
+        return service
+                .search(query, limit)
+                .flatMap(products ->
+                                 ServerResponse
+                                         .ok()
+                                         .contentType(ProductMediaTypes.negotiate(request.headers().accept()))
+                                         .body(fromValue(products))
+                );
+    }
+
+    public Mono<ServerResponse> getProductsById(ServerRequest request) {
+        return request
+                .bodyToMono(IDS)
+                .flatMap(service::findAllById)
+                .flatMap(lookup ->
+                                 ServerResponse
+                                         .ok()
+                                         .contentType(ProductMediaTypes.negotiate(request.headers().accept()))
+                                         .body(fromValue(lookup))
+                );
+    }
+
+    public Mono<ServerResponse> getStats(ServerRequest request) {
+        return service
+                .stats(request.queryParam("mode").orElse(null))
+                .flatMap(stats ->
+                                 ServerResponse
+                                         .ok()
+                                         .contentType(ProductMediaTypes.negotiate(request.headers().accept()))
+                                         .body(fromValue(stats))
+                );
+    }
+
+    public Mono<ServerResponse> checkStats(ServerRequest request) {
+        return service
+                .checkStats()
+                .flatMap(check ->
+                                 ServerResponse
+                                         .ok()
+                                         .contentType(ProductMediaTypes.negotiate(request.headers().accept()))
+                                         .body(fromValue(check))
+                );
     }
 
     public Mono<ServerResponse> getProduct(ServerRequest request) {
         String id = request.pathVariable("id");
-
-        Mono<Product> productMono = repository.findById(id);
         Mono<ServerResponse> notFound = ServerResponse.notFound().build();
 
+        if (service.servesEncoded(request.headers().accept())) {
+            return service.findEncodedById(id)
+                          .flatMap(response -> encoded(request, response))
+                          .switchIfEmpty(notFound);
+        }
+
+        Mono<Product> productMono = service.findById(id);
+        MediaType contentType = ProductMediaTypes.negotiate(request.headers().accept());
+
         return productMono
                 .flatMap(product ->
                                  ServerResponse.ok()
-                                               .contentType(APPLICATION_JSON)
+                                               .headers(headers -> headers.addAll(
+                                                       ProductETags.headers(product, contentType)))
+                                               .contentType(contentType)
                                                .body(fromValue(product))
                 )
                 .switchIfEmpty(notFound);
@@ -53,30 +149,38 @@ public class ProductHandler {
         return productMono
                 .flatMap(product ->
                                  ServerResponse.status(HttpStatus.CREATED)
-                                               .contentType(APPLICATION_JSON)
-                                               .body(repository.save(product), Product.class)
+                                               .contentType(ProductMediaTypes.negotiate(request.headers().accept()))
+                                               .body(service.save(product), Product.class)
                 );
     }
 
+    public Mono<ServerResponse> saveProducts(ServerRequest request) {
+        Flux<ProductBatch> batches = service.insertAll(request.bodyToFlux(Product.class));
+
+        return ServerResponse
+                .ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(batches, ProductBatch.class);
+    }
+
     public Mono<ServerResponse> updateProduct(ServerRequest request) {
         String id = request.pathVariable("id");
 
-        Mono<Product> existingProductMono = repository.findById(id);
+        Long expectedVersion = ProductETags.expectedVersion(request.headers().asHttpHeaders().getIfMatch());
+
         Mono<Product> productMono = request.bodyToMono(Product.class);
 
         Mono<ServerResponse> notFound = ServerResponse.notFound().build();
+        MediaType contentType = ProductMediaTypes.negotiate(request.headers().accept());
 
         return productMono
-                .zipWith(
-                        existingProductMono,
-                        (product, existingProduct) ->
-                                new Product(existingProduct.getId(), product.getName(), product.getPrice())
-                )
+                .flatMap(product -> service.update(id, product, expectedVersion))
                 .flatMap(product ->
                                  ServerResponse
                                          .ok()
-                                         .contentType(APPLICATION_JSON)
-                                         .body(repository.save(product), Product.class)
+                                         .headers(headers -> headers.addAll(ProductETags.headers(product, contentType)))
+                                         .contentType(contentType)
+                                         .body(fromValue(product))
                 )
                 .switchIfEmpty(notFound);
     }
@@ -84,32 +188,62 @@ public class ProductHandler {
     public Mono<ServerResponse> deleteProduct(ServerRequest request) {
         String id = request.pathVariable("id");
 
-        Mono<Product> productMono = repository.findById(id);
+        Long expectedVersion = ProductETags.expectedVersion(request.headers().asHttpHeaders().getIfMatch());
+
         Mono<ServerResponse> notFound = ServerResponse.notFound().build();
 
-        return productMono
-                .flatMap(existingProduct ->
-                                 ServerResponse
-                                         .ok()
-                                         .body(repository.delete(existingProduct), Void.class))
-                .switchIfEmpty(notFound);
+        return service.delete(id, expectedVersion)
+                      .flatMap(deletedProduct -> ServerResponse.ok().build())
+                      .switchIfEmpty(notFound);
     }
 
     public Mono<ServerResponse> deleteAllProducts(ServerRequest request) {
         return ServerResponse.
                 ok()
-                .build(repository.deleteAll());
+                .build(service.deleteAll());
     }
 
     public Mono<ServerResponse> getProductEvents(ServerRequest request) {
-        Flux<ProductEvent> eventFlux = Flux
-                .interval(Duration.ofSeconds(1))
-                .map(val -> new ProductEvent(val.toString(), "Product Event"));
+        Flux<ServerSentEvent<ProductEvent>> eventFlux = service.events(request.headers().firstHeader(LAST_EVENT_ID));
 
         return ServerResponse
                 .ok()
                 .contentType(MediaType.TEXT_EVENT_STREAM)
-                .body(eventFlux, ProductEvent.class);
+                .body(eventFlux, SERVER_SENT_EVENTS);
+    }
+
+    private static ProductFilter filter(ServerRequest request) {
+        return ProductFilter.of(
+                request.queryParam("name").orElse(null),
+                request.queryParam("namePrefix").orElse(null),
+                request.queryParam("minPrice").map(minPrice -> parsePrice("minPrice", minPrice)).orElse(null),
+                request.queryParam("maxPrice").map(maxPrice -> parsePrice("maxPrice", maxPrice)).orElse(null),
+                request.queryParam("sort").orElse(null)
+        );
+    }
+
+    private static Double parsePrice(String name, String price) {
+        try {
+            return Double.valueOf(price);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Query parameter '" + name + "' must be a number");
+        }
+    }
+
+    private static Mono<ServerResponse> encoded(ServerRequest request, EncodedResponse response) {
+        boolean gzipped = response.isGzipFor(request.headers().asHttpHeaders());
+
+        return ServerResponse.ok()
+                             .headers(headers -> headers.addAll(response.headers(gzipped)))
+                             .body(fromDataBuffers(Mono.fromSupplier(() -> response.body(gzipped))));
+    }
+
+    private static Integer parseLimit(String limit) {
+        try {
+            return Integer.valueOf(limit);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Query parameter 'limit' must be a number");
+        }
     }
 
 }
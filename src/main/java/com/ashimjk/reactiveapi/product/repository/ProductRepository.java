@@ -1,9 +1,19 @@
 package com.ashimjk.reactiveapi.product.repository;
 
 import com.ashimjk.reactiveapi.product.model.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 
 @Repository
-public interface ProductRepository extends ReactiveMongoRepository<Product, String> {
+public interface ProductRepository extends ReactiveMongoRepository<Product, String>, ProductRepositoryCustom {
+
+    Flux<Product> findAllBy(Pageable pageable);
+
+    Flux<Product> findByIdGreaterThan(String id, Pageable pageable);
+
+    Flux<Product> findByIdGreaterThan(String id, Sort sort);
+
 }
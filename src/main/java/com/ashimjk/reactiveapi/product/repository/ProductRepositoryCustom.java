@@ -0,0 +1,47 @@
+package com.ashimjk.reactiveapi.product.repository;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Single round-trip mutations and dynamic queries that the derived repository methods can't express.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Atomically replaces name and price of the product, bumps its version and emits the updated product. Completes
+     * empty when it doesn't exist or, if {@code expectedVersion} is not null, is at another version.
+     */
+    Mono<Product> findAndUpdate(String id, Product product, Long expectedVersion);
+
+    /**
+     * Atomically replaces name, price and last modified time of the product with the given id and bumps its version,
+     * or creates it at version 1 when it doesn't exist. Emits the product as it was before, or completes empty when it
+     * was created.
+     */
+    Mono<Product> findAndUpsert(String id, Product product);
+
+    /**
+     * Atomically deletes the product and emits it. Completes empty when it doesn't exist or, if
+     * {@code expectedVersion} is not null, is at another version.
+     */
+    Mono<Product> findAndDeleteById(String id, Long expectedVersion);
+
+    /**
+     * Products matching the filter in its order, only those with an id greater than {@code after} when it is not
+     * null, and at most {@code limit} of them unless it is 0.
+     */
+    Flux<Product> findByFilter(ProductFilter filter, String after, int limit);
+
+    /**
+     * Exact price statistics of the products that have a price, computed where the products are stored rather than
+     * by reading them all.
+     */
+    Mono<ProductStats> aggregatePriceStats(List<Double> percentiles);
+
+}
@@ -0,0 +1,178 @@
+package com.ashimjk.reactiveapi.product.repository;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsMode;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final Criteria PRICED = where("price").ne(null);
+
+    private final ReactiveMongoOperations operations;
+
+    @Override
+    public Mono<Product> findAndUpdate(String id, Product product, Long expectedVersion) {
+        Update update = new Update()
+                .set("name", product.getName())
+                .set("price", product.getPrice())
+                .inc("version", 1)
+                .currentDate("lastModified");
+
+        return operations.findAndModify(
+                byIdAndVersion(id, expectedVersion),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Product.class
+        );
+    }
+
+    /**
+     * One {@code findAndModify} with {@code upsert}, so concurrent upserts of a new id can't both insert it.
+     */
+    @Override
+    public Mono<Product> findAndUpsert(String id, Product product) {
+        Update update = new Update()
+                .set("name", product.getName())
+                .set("price", product.getPrice())
+                .set("lastModified", product.getLastModified())
+                .inc("version", 1);
+
+        return operations.findAndModify(
+                Query.query(where("id").is(id)),
+                update,
+                FindAndModifyOptions.options().upsert(true),
+                Product.class
+        );
+    }
+
+    @Override
+    public Mono<Product> findAndDeleteById(String id, Long expectedVersion) {
+        return operations.findAndRemove(byIdAndVersion(id, expectedVersion), Product.class);
+    }
+
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter, String after, int limit) {
+        return operations.find(filterQuery(filter, after, limit), Product.class);
+    }
+
+    /**
+     * One {@code $group} stage for count, min, max and average, then one query per percentile that walks the price
+     * index up to the percentile's nearest rank and reads a single price. The lookups run concurrently, and nothing
+     * but the results leaves the server; unlike pushing the prices into the group, no stage holds them all, so the
+     * cost stays an index walk however many products there are.
+     */
+    @Override
+    public Mono<ProductStats> aggregatePriceStats(List<Double> percentiles) {
+        Aggregation summary = Aggregation.newAggregation(
+                Aggregation.match(PRICED),
+                Aggregation.group()
+                           .count().as("count")
+                           .min("price").as("min")
+                           .max("price").as("max")
+                           .avg("price").as("avg")
+        );
+
+        return operations.aggregate(summary, Product.class, Document.class)
+                         .next()
+                         .flatMap(stats -> {
+                             long count = stats.get("count", Number.class).longValue();
+                             return percentiles(count, percentiles).map(values -> new ProductStats(
+                                     ProductStatsMode.AGGREGATE,
+                                     count,
+                                     stats.get("min", Number.class).doubleValue(),
+                                     stats.get("max", Number.class).doubleValue(),
+                                     stats.get("avg", Number.class).doubleValue(),
+                                     values
+                             ));
+                         })
+                         .defaultIfEmpty(ProductStats.empty(ProductStatsMode.AGGREGATE));
+    }
+
+    private Mono<Map<String, Double>> percentiles(long count, List<Double> percentiles) {
+        return Flux.fromIterable(percentiles)
+                   .flatMapSequential(percentile -> priceAtRank(ProductStats.rank(percentile, count))
+                           .map(price -> Map.entry(ProductStats.percentileName(percentile), price)))
+                   .collect(LinkedHashMap::new, (values, entry) -> values.put(entry.getKey(), entry.getValue()));
+    }
+
+    private Mono<Double> priceAtRank(long rank) {
+        Query query = Query.query(PRICED).with(Sort.by("price")).skip(rank - 1).limit(1);
+        query.fields().include("price").exclude("_id");
+
+        return operations.findOne(query, Document.class, operations.getCollectionName(Product.class))
+                         .map(document -> document.get("price", Number.class).doubleValue());
+    }
+
+    /**
+     * One criterion per field, so that the name, price and (name, price) indexes can serve any combination. The name
+     * prefix is an anchored, escaped regex, which Mongo turns into index bounds.
+     */
+    static Query filterQuery(ProductFilter filter, String after, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (filter.getName() != null) {
+            criteria.add(where("name").is(filter.getName()));
+        }
+        if (filter.getNamePrefix() != null) {
+            criteria.add(where("name").regex("^" + escapeRegex(filter.getNamePrefix())));
+        }
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            Criteria price = where("price");
+            if (filter.getMinPrice() != null) {
+                price.gte(filter.getMinPrice());
+            }
+            if (filter.getMaxPrice() != null) {
+                price.lte(filter.getMaxPrice());
+            }
+            criteria.add(price);
+        }
+        if (after != null) {
+            criteria.add(where("id").gt(after));
+        }
+
+        Query query = criteria.isEmpty()
+                ? new Query()
+                : Query.query(new Criteria().andOperator(criteria.toArray(Criteria[]::new)));
+
+        return query.with(filter.getSort()).limit(limit);
+    }
+
+    private static String escapeRegex(String literal) {
+        StringBuilder escaped = new StringBuilder(literal.length());
+        for (char c : literal.toCharArray()) {
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static Query byIdAndVersion(String id, Long expectedVersion) {
+        Criteria criteria = where("id").is(id);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        return Query.query(criteria);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.ashimjk.reactiveapi.product.repository.memory;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.memory")
+public class InMemoryProductProperties {
+
+    /**
+     * File the products are snapshotted to and reloaded from on startup. No snapshots are taken when not set.
+     */
+    private Path snapshotFile;
+
+    /**
+     * How often the products are snapshotted, if they changed since the last snapshot.
+     */
+    private Duration snapshotInterval = Duration.ofSeconds(30);
+
+}
@@ -0,0 +1,571 @@
+package com.ashimjk.reactiveapi.product.repository.memory;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsMode;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.stereotype.Repository;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsFirst;
+
+/**
+ * Keeps the products in memory, for running without Mongo under the {@code memory} profile. Products are held in
+ * id order, with sorted secondary indexes on price and on name that serve price ranges and exact or prefix name
+ * lookups the way the Mongo indexes do.
+ * <p>
+ * Reads are lock-free and see every index at least as fresh as when they started; writes are serialized, so a product
+ * and its index entries always change together. Stored products are copies that are never handed out, so callers can
+ * modify what they get back. Ids are {@link ObjectId}s, so they sort in creation order like Mongo's. Query by example
+ * isn't used by the application and fails with {@link UnsupportedOperationException}.
+ */
+@Slf4j
+@Profile("memory")
+@Repository
+@EnableConfigurationProperties(InMemoryProductProperties.class)
+public class InMemoryProductRepository implements ProductRepository {
+
+    private static final Comparator<String> IDS = nullsFirst(naturalOrder());
+    private static final Comparator<Product> BY_PRICE = comparing(Product::getPrice).thenComparing(Product::getId, IDS);
+    private static final Comparator<Product> BY_NAME = comparing(Product::getName).thenComparing(Product::getId, IDS);
+    private static final Sort ID_ORDER = Sort.by("id");
+    private static final Sort NAME_ORDER = Sort.by("name").and(ID_ORDER);
+    private static final Sort PRICE_ORDER = Sort.by("price").and(ID_ORDER);
+
+    private final ConcurrentSkipListMap<String, Product> products = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<Product> priceIndex = new ConcurrentSkipListSet<>(BY_PRICE);
+    private final ConcurrentSkipListSet<Product> nameIndex = new ConcurrentSkipListSet<>(BY_NAME);
+    private final Object writeLock = new Object();
+    private final AtomicLong modifications = new AtomicLong();
+
+    private final InMemoryProductProperties properties;
+    private long snapshotModifications;
+    private Disposable snapshots;
+
+    public InMemoryProductRepository(InMemoryProductProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    void loadSnapshot() throws IOException {
+        if (properties.getSnapshotFile() == null) {
+            return;
+        }
+
+        if (Files.exists(properties.getSnapshotFile())) {
+            long start = System.nanoTime();
+            List<Product> snapshot = ProductSnapshotFile.read(properties.getSnapshotFile());
+            synchronized (writeLock) {
+                snapshot.forEach(product -> store(null, product));
+                snapshotModifications = modifications.get();
+            }
+            log.info("Loaded {} products from {} in {} ms", snapshot.size(), properties.getSnapshotFile(),
+                     (System.nanoTime() - start) / 1_000_000);
+        }
+
+        long interval = properties.getSnapshotInterval().toMillis();
+        snapshots = Schedulers.boundedElastic()
+                              .schedulePeriodically(this::snapshotIfModified, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopSnapshots() {
+        if (snapshots != null) {
+            snapshots.dispose();
+            snapshotIfModified();
+        }
+    }
+
+    /**
+     * Writes a snapshot when anything changed since the last one. The products are collected under the write lock,
+     * so the snapshot is consistent; writing the file happens outside it.
+     */
+    void snapshotIfModified() {
+        List<Product> snapshot;
+        long snapshotted;
+        synchronized (writeLock) {
+            snapshotted = modifications.get();
+            if (snapshotted == snapshotModifications) {
+                return;
+            }
+            snapshot = new ArrayList<>(products.values());
+        }
+
+        try {
+            long start = System.nanoTime();
+            ProductSnapshotFile.write(properties.getSnapshotFile(), snapshot);
+            synchronized (writeLock) {
+                snapshotModifications = snapshotted;
+            }
+            log.info("Wrote {} products to {} in {} ms", snapshot.size(), properties.getSnapshotFile(),
+                     (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write product snapshot to {}", properties.getSnapshotFile(), e);
+        }
+    }
+
+    @Override
+    public Flux<Product> findAllBy(Pageable pageable) {
+        return page(() -> products.values().stream(), ID_ORDER, pageable);
+    }
+
+    @Override
+    public Flux<Product> findByIdGreaterThan(String id, Pageable pageable) {
+        return page(() -> products.tailMap(id, false).values().stream(), ID_ORDER, pageable);
+    }
+
+    @Override
+    public Flux<Product> findByIdGreaterThan(String id, Sort sort) {
+        return query(() -> products.tailMap(id, false).values().stream(), ID_ORDER, sort, 0, 0);
+    }
+
+    @Override
+    public Mono<Product> findAndUpdate(String id, Product product, Long expectedVersion) {
+        return Mono.fromSupplier(() -> {
+            synchronized (writeLock) {
+                Product existing = products.get(id);
+                if (!matches(existing, expectedVersion)) {
+                    return null;
+                }
+                Product updated = new Product(id, product.getName(), product.getPrice(),
+                                              existing.getVersion() == null ? 1 : existing.getVersion() + 1,
+                                              Instant.now());
+                store(existing, updated);
+                return copy(updated);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Product> findAndUpsert(String id, Product product) {
+        return Mono.fromSupplier(() -> {
+            synchronized (writeLock) {
+                Product existing = products.get(id);
+                Product upserted = new Product(id, product.getName(), product.getPrice(),
+                                               existing == null || existing.getVersion() == null
+                                                       ? 1L
+                                                       : existing.getVersion() + 1,
+                                               product.getLastModified());
+                store(existing, upserted);
+                return copy(existing);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Product> findAndDeleteById(String id, Long expectedVersion) {
+        return Mono.fromSupplier(() -> {
+            synchronized (writeLock) {
+                Product existing = products.get(id);
+                if (!matches(existing, expectedVersion)) {
+                    return null;
+                }
+                remove(existing);
+                return copy(existing);
+            }
+        });
+    }
+
+    /**
+     * Scans the most selective index the filter can use (exact name, then name prefix, then price range, then the
+     * ids after the cursor), checks the remaining criteria on each product, and sorts only when the index order
+     * isn't the requested one.
+     */
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter, String after, int limit) {
+        Supplier<Collection<Product>> candidates;
+        Sort candidateOrder;
+        if (filter.getName() != null) {
+            candidates = () -> nameRange(filter.getName(), filter.getName() + '\0');
+            candidateOrder = NAME_ORDER;
+        } else if (filter.getNamePrefix() != null) {
+            candidates = () -> nameRange(filter.getNamePrefix(), filter.getNamePrefix() + Character.MAX_VALUE);
+            candidateOrder = NAME_ORDER;
+        } else if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            candidates = () -> priceRange(filter.getMinPrice(), filter.getMaxPrice());
+            candidateOrder = PRICE_ORDER;
+        } else {
+            candidates = () -> (after == null ? products : products.tailMap(after, false)).values();
+            candidateOrder = ID_ORDER;
+        }
+
+        return query(() -> candidates.get().stream().filter(product -> matches(filter, after, product)),
+                     candidateOrder, filter.getSort(), 0, limit);
+    }
+
+    /**
+     * Reads the prices off the price index, which keeps them in order.
+     */
+    @Override
+    public Mono<ProductStats> aggregatePriceStats(List<Double> percentiles) {
+        return Mono.fromSupplier(() -> ProductStats.ofSorted(
+                ProductStatsMode.AGGREGATE,
+                priceIndex.stream().mapToDouble(Product::getPrice).toArray(),
+                percentiles
+        ));
+    }
+
+    @Override
+    public <S extends Product> Mono<S> insert(S entity) {
+        return Mono.fromSupplier(() -> {
+            synchronized (writeLock) {
+                return doInsert(entity);
+            }
+        });
+    }
+
+    @Override
+    public <S extends Product> Flux<S> insert(Iterable<S> entities) {
+        return Flux.defer(() -> {
+            List<S> inserted = new ArrayList<>();
+            synchronized (writeLock) {
+                entities.forEach(entity -> inserted.add(doInsert(entity)));
+            }
+            return Flux.fromIterable(inserted);
+        });
+    }
+
+    @Override
+    public <S extends Product> Flux<S> insert(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(this::insert);
+    }
+
+    /**
+     * Inserts products without a version and replaces those with one, failing with
+     * {@link OptimisticLockingFailureException} when the stored product is at another version, like Mongo's
+     * versioned save.
+     */
+    @Override
+    public <S extends Product> Mono<S> save(S entity) {
+        return Mono.fromSupplier(() -> {
+            synchronized (writeLock) {
+                if (entity.getVersion() == null) {
+                    return doInsert(entity);
+                }
+
+                Product existing = entity.getId() == null ? null : products.get(entity.getId());
+                if (!matches(existing, entity.getVersion())) {
+                    throw new OptimisticLockingFailureException(
+                            "Product " + entity.getId() + " is not at version " + entity.getVersion());
+                }
+                entity.setVersion(entity.getVersion() + 1);
+                store(existing, copy(entity));
+                return entity;
+            }
+        });
+    }
+
+    @Override
+    public <S extends Product> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends Product> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Product> findById(String id) {
+        return Mono.fromSupplier(() -> copy(products.get(id)));
+    }
+
+    @Override
+    public Mono<Product> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return Mono.fromSupplier(() -> products.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return query(() -> products.values().stream(), ID_ORDER, ID_ORDER, 0, 0);
+    }
+
+    @Override
+    public Flux<Product> findAll(Sort sort) {
+        return query(() -> products.values().stream(), ID_ORDER, sort, 0, 0);
+    }
+
+    @Override
+    public Flux<Product> findAllById(Iterable<String> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<Product> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) products.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.fromRunnable(() -> {
+            synchronized (writeLock) {
+                remove(products.get(id));
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Product entity) {
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        return Flux.fromIterable(ids).concatMap(this::deleteById).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Product> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Product> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(() -> {
+            synchronized (writeLock) {
+                products.clear();
+                priceIndex.clear();
+                nameIndex.clear();
+                modifications.incrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public <S extends Product> Mono<S> findOne(Example<S> example) {
+        return Mono.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends Product> Flux<S> findAll(Example<S> example) {
+        return Flux.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends Product> Flux<S> findAll(Example<S> example, Sort sort) {
+        return Flux.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends Product> Mono<Long> count(Example<S> example) {
+        return Mono.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends Product> Mono<Boolean> exists(Example<S> example) {
+        return Mono.error(queryByExampleUnsupported());
+    }
+
+    @Override
+    public <S extends Product, R, P extends Publisher<R>> P findBy(
+            Example<S> example,
+            Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction
+    ) {
+        throw queryByExampleUnsupported();
+    }
+
+    private <S extends Product> S doInsert(S entity) {
+        if (entity.getId() == null) {
+            entity.setId(new ObjectId().toHexString());
+        } else if (products.containsKey(entity.getId())) {
+            throw new DuplicateKeyException("Product " + entity.getId() + " already exists");
+        }
+        if (entity.getVersion() == null) {
+            entity.setVersion(0L);
+        }
+        store(null, copy(entity));
+        return entity;
+    }
+
+    /**
+     * Replaces {@code existing}, if any, with {@code product} in the products and every index. Callers hold the write
+     * lock.
+     */
+    private void store(Product existing, Product product) {
+        if (existing != null) {
+            unindex(existing);
+        }
+        products.put(product.getId(), product);
+        if (product.getPrice() != null) {
+            priceIndex.add(product);
+        }
+        if (product.getName() != null) {
+            nameIndex.add(product);
+        }
+        modifications.incrementAndGet();
+    }
+
+    private void remove(Product existing) {
+        if (existing != null) {
+            products.remove(existing.getId());
+            unindex(existing);
+            modifications.incrementAndGet();
+        }
+    }
+
+    private void unindex(Product product) {
+        if (product.getPrice() != null) {
+            priceIndex.remove(product);
+        }
+        if (product.getName() != null) {
+            nameIndex.remove(product);
+        }
+    }
+
+    private NavigableSet<Product> nameRange(String from, String to) {
+        return nameIndex.subSet(new Product(null, from, null), true, new Product(null, to, null), false);
+    }
+
+    /**
+     * Prices from {@code min} to {@code max}, both inclusive; the upper bound is the next larger double, before any
+     * id.
+     */
+    private NavigableSet<Product> priceRange(Double min, Double max) {
+        NavigableSet<Product> range = min == null ? priceIndex : priceIndex.tailSet(new Product(null, null, min), true);
+        return max == null ? range : range.headSet(new Product(null, null, Math.nextUp(max)), false);
+    }
+
+    private Flux<Product> page(Supplier<Stream<Product>> source, Sort sourceOrder, Pageable pageable) {
+        return pageable.isUnpaged()
+                ? query(source, sourceOrder, pageable.getSort(), 0, 0)
+                : query(source, sourceOrder, pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+    }
+
+    /**
+     * Runs the query when subscribed: sorts the source unless it already is in the requested order, then skips and
+     * limits (no limit when 0), and copies each product on the way out.
+     */
+    private Flux<Product> query(Supplier<Stream<Product>> source, Sort sourceOrder, Sort sort,
+                                long skip, int limit) {
+        return Flux.defer(() -> {
+            Stream<Product> stream = source.get();
+            if (sort.isSorted() && !sort.equals(sourceOrder)) {
+                stream = stream.sorted(comparator(sort));
+            }
+            stream = stream.skip(skip);
+            if (limit > 0) {
+                stream = stream.limit(limit);
+            }
+            return Flux.fromStream(stream.map(InMemoryProductRepository::copy));
+        });
+    }
+
+    private static boolean matches(ProductFilter filter, String after, Product product) {
+        return (filter.getName() == null || filter.getName().equals(product.getName()))
+                && (filter.getNamePrefix() == null
+                || (product.getName() != null && product.getName().startsWith(filter.getNamePrefix())))
+                && (filter.getMinPrice() == null || (product.getPrice() != null && product.getPrice() >= filter.getMinPrice()))
+                && (filter.getMaxPrice() == null || (product.getPrice() != null && product.getPrice() <= filter.getMaxPrice()))
+                && (after == null || product.getId().compareTo(after) > 0);
+    }
+
+    private static boolean matches(Product existing, Long expectedVersion) {
+        return existing != null && (expectedVersion == null || expectedVersion.equals(existing.getVersion()));
+    }
+
+    /**
+     * Orders like Mongo does: missing values first when ascending, last when descending.
+     */
+    private static Comparator<Product> comparator(Sort sort) {
+        Comparator<Product> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Product> byProperty = property(order.getProperty());
+            if (order.isDescending()) {
+                byProperty = byProperty.reversed();
+            }
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        return Objects.requireNonNull(comparator);
+    }
+
+    private static Comparator<Product> property(String property) {
+        switch (property) {
+            case "id":
+                return comparing(Product::getId, IDS);
+            case "name":
+                return comparing(Product::getName, nullsFirst(naturalOrder()));
+            case "price":
+                return comparing(Product::getPrice, nullsFirst(naturalOrder()));
+            case "version":
+                return comparing(Product::getVersion, nullsFirst(naturalOrder()));
+            case "lastModified":
+                return comparing(Product::getLastModified, nullsFirst(naturalOrder()));
+            default:
+                throw new IllegalArgumentException("Products can't be sorted by '" + property + "'");
+        }
+    }
+
+    private static Product copy(Product product) {
+        return product == null
+                ? null
+                : new Product(product.getId(), product.getName(), product.getPrice(), product.getVersion(),
+                              product.getLastModified());
+    }
+
+    private static UnsupportedOperationException queryByExampleUnsupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.ashimjk.reactiveapi.product.repository.memory;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binary snapshot of products, written to and read from a memory-mapped file. The snapshot is written to a temporary
+ * file first and moved over the previous one, so a crash while writing leaves the previous snapshot intact.
+ * <p>
+ * Layout: magic, format version and product count, then per product its id, name, price, version and last
+ * modification. Strings are length-prefixed UTF-8 with -1 for null, a null price is NaN and a null version or
+ * last modification is {@link Long#MIN_VALUE}.
+ */
+final class ProductSnapshotFile {
+
+    private static final int MAGIC = 0x50524F44;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int FIXED_BYTES_PER_PRODUCT = 2 * Integer.BYTES + Double.BYTES + 2 * Long.BYTES + Integer.BYTES;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+
+    private ProductSnapshotFile() {
+    }
+
+    static void write(Path file, Collection<Product> products) throws IOException {
+        List<byte[]> ids = new ArrayList<>(products.size());
+        List<byte[]> names = new ArrayList<>(products.size());
+        long size = HEADER_BYTES;
+        for (Product product : products) {
+            byte[] id = bytes(product.getId());
+            byte[] name = bytes(product.getName());
+            ids.add(id);
+            names.add(name);
+            size += FIXED_BYTES_PER_PRODUCT + length(id) + length(name);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + products.size() + " products exceeds 2 GB");
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(products.size());
+
+            int index = 0;
+            for (Product product : products) {
+                putString(buffer, ids.get(index));
+                putString(buffer, names.get(index));
+                buffer.putDouble(product.getPrice() == null ? Double.NaN : product.getPrice());
+                buffer.putLong(product.getVersion() == null ? NULL_LONG : product.getVersion());
+                Instant lastModified = product.getLastModified();
+                buffer.putLong(lastModified == null ? NULL_LONG : lastModified.getEpochSecond());
+                buffer.putInt(lastModified == null ? 0 : lastModified.getNano());
+                index++;
+            }
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static List<Product> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a product snapshot: " + file);
+            }
+
+            int count = buffer.getInt();
+            List<Product> products = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = getString(buffer);
+                String name = getString(buffer);
+                double price = buffer.getDouble();
+                long version = buffer.getLong();
+                long seconds = buffer.getLong();
+                int nanos = buffer.getInt();
+                products.add(new Product(
+                        id,
+                        name,
+                        Double.isNaN(price) ? null : price,
+                        version == NULL_LONG ? null : version,
+                        seconds == NULL_LONG ? null : Instant.ofEpochSecond(seconds, nanos)
+                ));
+            }
+            return products;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
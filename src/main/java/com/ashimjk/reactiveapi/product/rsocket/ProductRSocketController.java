@@ -0,0 +1,85 @@
+package com.ashimjk.reactiveapi.product.rsocket;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductQuery;
+import com.ashimjk.reactiveapi.product.model.ProductUpsert;
+import com.ashimjk.reactiveapi.product.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * The product API over RSocket, for internal consumers that keep one connection open and multiplex every request on
+ * it. Streams are driven by the requester's demand: listings read the cursor, the event feed drains the subscriber's
+ * buffer and upserts read the channel only as fast as it asks for results.
+ */
+@Controller
+@RequiredArgsConstructor
+public class ProductRSocketController {
+
+    private static final ResolvableType PRODUCT = ResolvableType.forClass(Product.class);
+
+    private final ProductService productService;
+    private final RSocketStrategies strategies;
+
+    /**
+     * Request-response: the product, or an empty response when it doesn't exist.
+     */
+    @MessageMapping("products.{id}")
+    public Mono<Product> productById(@DestinationVariable String id) {
+        return productService.findById(id);
+    }
+
+    /**
+     * Request-stream: the products matching the query, all of them without one.
+     */
+    @MessageMapping("products")
+    public Flux<Product> products(@Payload(required = false) ProductQuery query) {
+        ProductQuery productQuery = query != null ? query : new ProductQuery();
+
+        return productService.stream(productQuery.filter(), productQuery.getAfter(), productQuery.getLimit());
+    }
+
+    /**
+     * Request-stream: the replayed and new product events.
+     */
+    @MessageMapping("products.events")
+    public Flux<ProductEvent> events() {
+        return productService.productEvents(null);
+    }
+
+    /**
+     * Request-stream: the product events after the given one, or a reset event first when they are no longer kept.
+     */
+    @MessageMapping("products.events.{lastEventId}")
+    public Flux<ProductEvent> eventsAfter(@DestinationVariable String lastEventId) {
+        return productService.productEvents(lastEventId);
+    }
+
+    /**
+     * Request-channel: upserts each product sent and answers, in the order they were sent, with the stored product or
+     * the error. Products are decoded one by one, so one that can't be read fails only its own answer.
+     */
+    @MessageMapping("products.upsert")
+    public Flux<ProductUpsert> upsert(Flux<DataBuffer> products, RSocketRequester requester) {
+        MimeType mimeType = requester.dataMimeType();
+        Decoder<Product> decoder = strategies.decoder(PRODUCT, mimeType);
+
+        return productService.upsertAll(products.map(product -> Mono.fromCallable(
+                () -> decoder.decode(product, PRODUCT, mimeType, Map.of()))));
+    }
+
+}
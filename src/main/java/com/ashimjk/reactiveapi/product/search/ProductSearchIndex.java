@@ -0,0 +1,387 @@
+package com.ashimjk.reactiveapi.product.search;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over product names, kept up to date by {@code ProductService} on every change.
+ * <p>
+ * Names are split into lower-case words without accents. Every word of a query has to match a word of the name,
+ * either exactly, as a prefix, or with a typo; matches are weighted in that order and by how rare the word is (idf),
+ * and ties go to shorter names. Words are kept sorted, so a prefix is a range of the index; typos are only looked for
+ * among words with the same first letter and a similar length, which leaves out numbers. Words starting with a letter
+ * are also bucketed by first letter and length, so a typo lookup computes edit distances for those few buckets only.
+ * <p>
+ * Reads are lock-free; writes are serialized so that a product's postings change together.
+ */
+@Component
+@EnableConfigurationProperties(ProductSearchProperties.class)
+public class ProductSearchIndex implements MeterBinder {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}");
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.8;
+    private static final double TYPO = 0.5;
+
+    // rough heap sizes with compressed oops, for the memory gauge
+    private static final int BYTES_PER_DOCUMENT = 300;
+    private static final int BYTES_PER_POSTING = 40;
+    private static final int BYTES_PER_TERM = 200;
+
+    private final ProductSearchProperties properties;
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Document>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Set<String>> typoBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong postingCount = new AtomicLong();
+    private final AtomicLong characters = new AtomicLong();
+    private final Object writeLock = new Object();
+
+    public ProductSearchIndex(ProductSearchProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Adds the product, or replaces what was indexed for its id.
+     */
+    public void index(Product product) {
+        synchronized (writeLock) {
+            unindex(documents.get(product.getId()));
+            Document document = new Document(product, tokenize(product.getName()).toArray(String[]::new));
+            documents.put(product.getId(), document);
+            for (String term : document.terms) {
+                postings.computeIfAbsent(term, this::newPostings).add(document);
+            }
+            postingCount.addAndGet(document.terms.length);
+            characters.addAndGet(product.getName() == null ? 0 : product.getName().length());
+        }
+    }
+
+    public void remove(String id) {
+        synchronized (writeLock) {
+            unindex(documents.remove(id));
+        }
+    }
+
+    public void clear() {
+        synchronized (writeLock) {
+            documents.clear();
+            postings.clear();
+            typoBuckets.clear();
+            postingCount.set(0);
+            characters.set(0);
+        }
+    }
+
+    /**
+     * The best matches of the query, best first. The limit falls back to the configured default and is capped at the
+     * configured maximum.
+     */
+    public List<Product> search(String query, Integer limit) {
+        return search(query, limit == null
+                ? properties.getDefaultLimit()
+                : Math.max(1, Math.min(limit, properties.getMaxLimit())));
+    }
+
+    private List<Product> search(String query, int limit) {
+        List<Map<String, Double>> queryTerms = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            Map<String, Double> terms = expand(token);
+            if (terms.isEmpty()) {
+                return List.of();
+            }
+            queryTerms.add(terms);
+        }
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        // candidates come from the query word with the fewest postings, the other words only score them
+        queryTerms.sort(Comparator.comparingLong(this::postingCount));
+        Set<String> candidateTerms = queryTerms.get(0).keySet();
+        Collection<Document> candidates;
+        if (candidateTerms.size() == 1) {
+            candidates = postings.getOrDefault(candidateTerms.iterator().next(), Set.of());
+        } else {
+            candidates = new HashSet<>();
+            candidateTerms.forEach(term -> candidates.addAll(postings.getOrDefault(term, Set.of())));
+        }
+
+        // the worst of the best hits so far is at the head, to be replaced by a better one
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        for (Document document : candidates) {
+            double score = score(document, queryTerms);
+            if (score == 0) {
+                continue;
+            }
+            Hit hit = new Hit(document.product, score);
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (hit.compareTo(best.peek()) < 0) {
+                best.poll();
+                best.add(hit);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.naturalOrder());
+        List<Product> products = new ArrayList<>(hits.size());
+        hits.forEach(hit -> products.add(hit.product));
+        return products;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.search.documents", documents, Map::size)
+             .description("Products in the search index")
+             .register(registry);
+        Gauge.builder("product.search.terms", postings, Map::size)
+             .description("Distinct words in the search index")
+             .register(registry);
+        Gauge.builder("product.search.postings", postingCount, AtomicLong::get)
+             .description("Word occurrences in the search index")
+             .register(registry);
+        Gauge.builder("product.search.memory", this, ProductSearchIndex::estimatedBytes)
+             .description("Estimated heap used by the search index, including the indexed products")
+             .baseUnit("bytes")
+             .register(registry);
+    }
+
+    /**
+     * A rough estimate, for sizing: about {@value #BYTES_PER_DOCUMENT} bytes per product, {@value #BYTES_PER_POSTING}
+     * per word of a name and {@value #BYTES_PER_TERM} per distinct word, plus two bytes per character of the names.
+     */
+    public long estimatedBytes() {
+        return (long) documents.size() * BYTES_PER_DOCUMENT
+                + postingCount.get() * BYTES_PER_POSTING
+                + (long) postings.size() * BYTES_PER_TERM
+                + 2 * characters.get();
+    }
+
+    /**
+     * Index words the query word matches, with their weight.
+     */
+    private Map<String, Double> expand(String token) {
+        Map<String, Double> terms = new HashMap<>();
+        double documentCount = Math.max(1, documents.size());
+
+        if (token.length() >= properties.getMinPrefixLength()) {
+            int expansions = 0;
+            for (Map.Entry<String, Set<Document>> entry : postings.subMap(token, token + Character.MAX_VALUE).entrySet()) {
+                if (expansions++ == properties.getMaxPrefixExpansions()) {
+                    break;
+                }
+                double weight = entry.getKey().equals(token) ? EXACT : PREFIX;
+                terms.put(entry.getKey(), weight * idf(documentCount, entry.getValue().size()));
+            }
+        } else {
+            Set<Document> exact = postings.get(token);
+            if (exact != null) {
+                terms.put(token, EXACT * idf(documentCount, exact.size()));
+            }
+        }
+
+        int maxTypos = maxTypos(token);
+        for (String term : typoCandidates(token, maxTypos)) {
+            if (!terms.containsKey(term) && withinDistance(token, term, maxTypos)) {
+                Set<Document> matches = postings.get(term);
+                if (matches != null) {
+                    terms.put(term, TYPO * idf(documentCount, matches.size()));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Index words that may be within {@code maxTypos} of the query word: those with its first letter and a length at
+     * most {@code maxTypos} away.
+     */
+    List<String> typoCandidates(String token, int maxTypos) {
+        if (maxTypos <= 0) {
+            return List.of();
+        }
+        List<String> candidates = new ArrayList<>();
+        for (int length = Math.max(1, token.length() - maxTypos); length <= token.length() + maxTypos; length++) {
+            candidates.addAll(typoBuckets.getOrDefault(typoBucket(token.charAt(0), length), Set.of()));
+        }
+        return candidates;
+    }
+
+    private Set<Document> newPostings(String term) {
+        if (Character.isLetter(term.charAt(0))) {
+            typoBuckets.computeIfAbsent(typoBucket(term.charAt(0), term.length()), key -> ConcurrentHashMap.newKeySet())
+                       .add(term);
+        }
+        return ConcurrentHashMap.newKeySet();
+    }
+
+    private int maxTypos(String token) {
+        int minLength = properties.getMinTypoLength();
+        if (minLength <= 0 || token.length() < minLength || !Character.isLetter(token.charAt(0))) {
+            return 0;
+        }
+        return token.length() >= 2 * minLength ? 2 : 1;
+    }
+
+    private long postingCount(Map<String, Double> terms) {
+        long count = 0;
+        for (String term : terms.keySet()) {
+            count += postings.getOrDefault(term, Set.of()).size();
+        }
+        return count;
+    }
+
+    /**
+     * Sum of the best weight each query word gets from the name, or 0 when a query word doesn't match at all.
+     */
+    private static double score(Document document, List<Map<String, Double>> queryTerms) {
+        double score = 0;
+        for (Map<String, Double> terms : queryTerms) {
+            double best = 0;
+            for (String term : document.terms) {
+                Double weight = terms.get(term);
+                if (weight != null && weight > best) {
+                    best = weight;
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private void unindex(Document document) {
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Set<Document> remaining = postings.computeIfPresent(term, (key, set) -> {
+                set.remove(document);
+                return set.isEmpty() ? null : set;
+            });
+            if (remaining == null && Character.isLetter(term.charAt(0))) {
+                typoBuckets.computeIfPresent(typoBucket(term.charAt(0), term.length()), (key, bucket) -> {
+                    bucket.remove(term);
+                    return bucket.isEmpty() ? null : bucket;
+                });
+            }
+        }
+        postingCount.addAndGet(-document.terms.length);
+        characters.addAndGet(document.product.getName() == null ? 0 : -document.product.getName().length());
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        String normalized = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static int typoBucket(char first, int length) {
+        return first << 16 | Math.min(length, 0xFFFF);
+    }
+
+    private static double idf(double documentCount, int documentFrequency) {
+        return Math.log(1 + documentCount / Math.max(1, documentFrequency));
+    }
+
+    /**
+     * Whether the Levenshtein distance of the two words is at most {@code max}, giving up on a row as soon as it
+     * can't get there any more.
+     */
+    static boolean withinDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > max) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= max;
+    }
+
+    private static final class Document {
+
+        private final Product product;
+        private final String[] terms;
+
+        private Document(Product product, String[] terms) {
+            this.product = product;
+            this.terms = terms;
+        }
+
+    }
+
+    /**
+     * Ordered best first: higher score, then shorter name, then lower id.
+     */
+    private static final class Hit implements Comparable<Hit> {
+
+        private final Product product;
+        private final double score;
+
+        private Hit(Product product, double score) {
+            this.product = product;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Double.compare(other.score, score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byLength = Integer.compare(product.getName().length(), other.product.getName().length());
+            return byLength != 0 ? byLength : product.getId().compareTo(other.product.getId());
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.ashimjk.reactiveapi.product.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "product.search")
+public class ProductSearchProperties {
+
+    /**
+     * Number of results returned when the request doesn't ask for a number.
+     */
+    private int defaultLimit = 20;
+
+    /**
+     * Upper bound of the number of results a request can ask for.
+     */
+    private int maxLimit = 100;
+
+    /**
+     * Shortest query word that also matches longer words starting with it.
+     */
+    private int minPrefixLength = 2;
+
+    /**
+     * Number of words a prefix expands to at most, so that short prefixes stay cheap.
+     */
+    private int maxPrefixExpansions = 64;
+
+    /**
+     * Shortest query word that also matches words one typo away from it; words of twice that length may have two
+     * typos. 0 disables typo tolerance.
+     */
+    private int minTypoLength = 4;
+
+}
@@ -0,0 +1,48 @@
+package com.ashimjk.reactiveapi.product.seed;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic products with names spread over a few prefixes and prices spread over a range, so that filters and
+ * indexes see realistic selectivity. The same count always generates the same products.
+ */
+public final class ProductGenerator {
+
+    private static final List<String> SIZES = List.of("Small", "Medium", "Big", "Iced", "Double");
+    private static final List<String> DRINKS = List.of(
+            "Latte", "Decaf", "Green Tea", "Black Tea", "Flat White", "Mocha", "Espresso", "Cappuccino"
+    );
+
+    private ProductGenerator() {
+    }
+
+    public static List<Product> samples() {
+        return List.of(
+                new Product(null, "Big Latte", 2.99),
+                new Product(null, "Big Decaf", 2.49),
+                new Product(null, "Green Tea", 1.99)
+        );
+    }
+
+    /**
+     * Generates the products lazily, as they are requested.
+     */
+    public static Flux<Product> generate(int count) {
+        return Flux.<Product, SplittableRandom>generate(
+                () -> new SplittableRandom(count),
+                (random, sink) -> {
+                    String name = SIZES.get(random.nextInt(SIZES.size())) + " "
+                            + DRINKS.get(random.nextInt(DRINKS.size())) + " "
+                            + random.nextInt(1_000_000);
+                    double price = Math.round(random.nextDouble(0.5, 20) * 100) / 100d;
+                    sink.next(new Product(null, name, price));
+                    return random;
+                }
+        ).take(count);
+    }
+
+}
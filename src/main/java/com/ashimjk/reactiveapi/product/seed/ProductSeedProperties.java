@@ -0,0 +1,56 @@
+package com.ashimjk.reactiveapi.product.seed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.seed")
+public class ProductSeedProperties {
+
+    /**
+     * What happens to the product collection on startup.
+     */
+    private Mode mode = Mode.IF_EMPTY;
+
+    /**
+     * Number of synthetic products to generate; 0 seeds a few sample products instead.
+     */
+    private int generated = 0;
+
+    /**
+     * Number of products sent to Mongo in one insert.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Number of inserts in flight at once.
+     */
+    private int concurrency = 4;
+
+    /**
+     * How long startup waits for indexes and seeding before it fails.
+     */
+    private Duration timeout = Duration.ofMinutes(5);
+
+    public enum Mode {
+
+        /**
+         * Leave the collection as it is.
+         */
+        OFF,
+
+        /**
+         * Seed only when the collection has no products.
+         */
+        IF_EMPTY,
+
+        /**
+         * Drop the collection and seed it again.
+         */
+        RESET
+
+    }
+
+}
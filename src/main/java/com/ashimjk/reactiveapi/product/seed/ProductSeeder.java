@@ -0,0 +1,130 @@
+package com.ashimjk.reactiveapi.product.seed;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.search.ProductSearchIndex;
+import com.ashimjk.reactiveapi.product.stats.ProductPriceStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Prepares the product collection before the application accepts traffic: creates the declared indexes, seeds
+ * products according to the configured mode and builds the search index and the price statistics from them. Runners
+ * complete before the application is reported ready, so every step blocks startup, and each one is logged with its
+ * duration. Without Mongo (the {@code memory} profile) there are no indexes to create.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(ProductSeedProperties.class)
+public class ProductSeeder implements CommandLineRunner {
+
+    private final ObjectProvider<ReactiveMongoOperations> operations;
+    private final ObjectProvider<MongoMappingContext> mappingContext;
+    private final ProductRepository repository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductPriceStats priceStats;
+    private final ProductSeedProperties properties;
+
+    @Override
+    public void run(String... args) {
+        ProductSeedProperties.Mode mode = properties.getMode();
+
+        if (mode == ProductSeedProperties.Mode.RESET) {
+            timed("Dropped product collection", this::drop);
+        }
+
+        if (operations.getIfAvailable() != null) {
+            timed("Ensured product indexes", this::ensureIndexes);
+        }
+
+        if (mode == ProductSeedProperties.Mode.OFF) {
+            log.info("Product seeding is off");
+        } else {
+            Long existing = repository.count().block(properties.getTimeout());
+            if (mode == ProductSeedProperties.Mode.IF_EMPTY && existing != null && existing > 0) {
+                log.info("Skipped product seeding, collection already has {} products", existing);
+            } else {
+                timed("Seeded products", this::seed);
+            }
+        }
+
+        timed("Indexed products for search and statistics", this::buildIndexes);
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Ready to accept traffic {} ms after JVM start",
+                 System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    /**
+     * Drops the collection when running against Mongo, which is much faster than deleting every product.
+     */
+    private Mono<Long> drop() {
+        ReactiveMongoOperations mongo = operations.getIfAvailable();
+        return mongo == null
+                ? repository.deleteAll().thenReturn(0L)
+                : mongo.dropCollection(Product.class).thenReturn(0L);
+    }
+
+    /**
+     * Auto index creation runs in the background, so this creates the declared indexes again and waits for them.
+     * Creating an index that exists is a no-op.
+     */
+    private Mono<Long> ensureIndexes() {
+        ReactiveIndexOperations indexOperations = operations.getObject().indexOps(Product.class);
+
+        return Flux.fromIterable(IndexResolver.create(mappingContext.getObject()).resolveIndexFor(Product.class))
+                   .concatMap(indexOperations::ensureIndex)
+                   .count();
+    }
+
+    private Mono<Long> seed() {
+        Flux<Product> products = properties.getGenerated() > 0
+                ? ProductGenerator.generate(properties.getGenerated())
+                : Flux.fromIterable(ProductGenerator.samples());
+
+        Instant now = Instant.now();
+        return products
+                .doOnNext(product -> product.setLastModified(now))
+                .buffer(properties.getBatchSize())
+                .flatMap(batch -> repository.insert(batch).count(), properties.getConcurrency())
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Later changes go through {@code ProductService}, which keeps both up to date.
+     */
+    private Mono<Long> buildIndexes() {
+        searchIndex.clear();
+        priceStats.clear();
+        return repository.findAll()
+                         .doOnNext(searchIndex::index)
+                         .doOnNext(priceStats::put)
+                         .count();
+    }
+
+    private void timed(String phase, Supplier<Mono<Long>> step) {
+        long start = System.nanoTime();
+        Long count = step.get().block(properties.getTimeout());
+        log.info("{} ({}) in {} ms", phase, count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import org.bson.types.ObjectId;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Collects concurrent inserts into batches, closed once they are full or as old as the max delay, and writes each
+ * batch with a single insert. Every caller is completed with its own product.
+ * <p>
+ * Products get their ids before they are queued. When a batch insert fails, one lookup of those ids tells which
+ * products were written before the failure; those complete normally and the others are inserted one by one. A product
+ * that can't be written therefore fails only its own caller. A queued product is written even when its caller
+ * cancels, as it would be once its own insert had been sent, so whatever has to follow a write runs in the
+ * {@code written} callback, once per written product, and not in the caller's pipeline.
+ */
+class InsertBatcher {
+
+    private final ProductRepository repository;
+    private final Consumer<Product> written;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batched = new AtomicLong();
+
+    private final Object lock = new Object();
+    private List<Pending> batch = new ArrayList<>();
+    private Disposable timer;
+
+    InsertBatcher(ProductRepository repository, Consumer<Product> written, int batchSize, Duration maxDelay) {
+        this.repository = repository;
+        this.written = written;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    Mono<Product> insert(Product product) {
+        return Mono.create(sink -> {
+            product.setId(new ObjectId().toHexString());
+            product.setVersion(0L);
+            enqueue(new Pending(product, sink, written));
+        });
+    }
+
+    /**
+     * Batch inserts sent.
+     */
+    long batches() {
+        return batches.get();
+    }
+
+    /**
+     * Products sent in a batch insert.
+     */
+    long batched() {
+        return batched.get();
+    }
+
+    private void enqueue(Pending pending) {
+        List<Pending> full = null;
+        synchronized (lock) {
+            batch.add(pending);
+            if (batch.size() >= batchSize) {
+                full = close();
+            } else if (batch.size() == 1) {
+                List<Pending> opened = batch;
+                timer = Schedulers.parallel().schedule(() -> closeIfStill(opened), maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            write(full);
+        }
+    }
+
+    private void closeIfStill(List<Pending> opened) {
+        List<Pending> closed = null;
+        synchronized (lock) {
+            if (batch == opened) {
+                closed = close();
+            }
+        }
+        if (closed != null) {
+            write(closed);
+        }
+    }
+
+    private List<Pending> close() {
+        List<Pending> closed = batch;
+        batch = new ArrayList<>(batchSize);
+        if (timer != null) {
+            timer.dispose();
+            timer = null;
+        }
+        return closed;
+    }
+
+    private void write(List<Pending> pendings) {
+        List<Product> products = pendings.stream().map(pending -> pending.product).collect(Collectors.toList());
+        batches.incrementAndGet();
+        batched.addAndGet(products.size());
+        repository.insert(products)
+                  .then()
+                  .subscribe(null, error -> recover(pendings, error), () -> pendings.forEach(Pending::succeed));
+    }
+
+    private void recover(List<Pending> pendings, Throwable batchError) {
+        List<String> ids = pendings.stream().map(pending -> pending.product.getId()).collect(Collectors.toList());
+        repository.findAllById(ids)
+                  .map(Product::getId)
+                  .collect(Collectors.toSet())
+                  .subscribe(
+                          written -> retryUnwritten(pendings, written),
+                          lookupError -> pendings.forEach(pending -> pending.sink.error(batchError))
+                  );
+    }
+
+    private void retryUnwritten(List<Pending> pendings, Set<String> written) {
+        for (Pending pending : pendings) {
+            if (written.contains(pending.product.getId())) {
+                pending.succeed();
+            } else {
+                repository.insert(pending.product)
+                          .subscribe(null, pending.sink::error, pending::succeed);
+            }
+        }
+    }
+
+    private static class Pending {
+
+        private final Product product;
+        private final MonoSink<Product> sink;
+        private final Consumer<Product> written;
+
+        private Pending(Product product, MonoSink<Product> sink, Consumer<Product> written) {
+            this.product = product;
+            this.sink = sink;
+            this.written = written;
+        }
+
+        private void succeed() {
+            written.accept(product);
+            sink.success(product);
+        }
+
+    }
+
+}
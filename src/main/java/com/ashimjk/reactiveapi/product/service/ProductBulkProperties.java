@@ -0,0 +1,27 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.bulk")
+public class ProductBulkProperties {
+
+    /**
+     * Number of products sent to Mongo in one insert.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Age after which an incomplete batch is closed, even when no further product arrives.
+     */
+    private Duration maxDelay = Duration.ofSeconds(1);
+
+    /**
+     * Number of products upserted at the same time from one stream.
+     */
+    private int upsertConcurrency = 16;
+
+}
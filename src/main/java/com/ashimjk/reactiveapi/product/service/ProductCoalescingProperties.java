@@ -0,0 +1,23 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.coalescing")
+public class ProductCoalescingProperties {
+
+    /**
+     * Whether concurrent identical list queries share one repository call. Lookups by id always share loads in flight
+     * through the product cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a completed list query keeps being shared with identical queries. Any write ends it early.
+     */
+    private Duration listWindow = Duration.ofMillis(50);
+
+}
@@ -0,0 +1,27 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.insert-batching")
+public class ProductInsertBatchingProperties {
+
+    /**
+     * Whether concurrent creates are written to Mongo together, in one insert per batch.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of creates that closes a batch right away.
+     */
+    private int batchSize = 64;
+
+    /**
+     * Longest a create waits for others to join its batch; the latency added to a create on a quiet server.
+     */
+    private Duration maxDelay = Duration.ofMillis(2);
+
+}
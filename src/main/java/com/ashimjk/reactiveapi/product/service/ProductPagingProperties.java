@@ -0,0 +1,25 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "product.paging")
+public class ProductPagingProperties {
+
+    /**
+     * Page size used when the request doesn't ask for one.
+     */
+    private int defaultLimit = 100;
+
+    /**
+     * Upper bound for the requested page size.
+     */
+    private int maxLimit = 1000;
+
+    /**
+     * Upper bound for the number of ids looked up in one batch.
+     */
+    private int maxBatchIds = 1000;
+
+}
@@ -0,0 +1,524 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import com.ashimjk.reactiveapi.product.cache.EncodedResponse;
+import com.ashimjk.reactiveapi.product.cache.ProductCache;
+import com.ashimjk.reactiveapi.product.cache.ProductResponseCache;
+import com.ashimjk.reactiveapi.product.event.ProductEventBus;
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductBatch;
+import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.model.ProductLookup;
+import com.ashimjk.reactiveapi.product.model.ProductPage;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsCheck;
+import com.ashimjk.reactiveapi.product.model.ProductStatsMode;
+import com.ashimjk.reactiveapi.product.model.ProductUpsert;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.search.ProductSearchIndex;
+import com.ashimjk.reactiveapi.product.stats.ProductPriceStats;
+import com.ashimjk.reactiveapi.product.stats.ProductStatsProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.Predicate;
+
+/**
+ * Single read/write path for products, shared by the annotated controller and the functional handler.
+ */
+@Service
+@EnableConfigurationProperties({
+        ProductPagingProperties.class,
+        ProductBulkProperties.class,
+        ProductCoalescingProperties.class,
+        ProductInsertBatchingProperties.class
+})
+public class ProductService implements MeterBinder {
+
+    private static final int BATCH_TICKS_PER_MAX_DELAY = 4;
+
+    private final ProductRepository repository;
+    private final ProductCache cache;
+    private final ProductResponseCache responseCache;
+    private final ProductEventBus eventBus;
+    private final ProductSearchIndex searchIndex;
+    private final ProductPriceStats priceStats;
+    private final ProductStatsProperties statsProperties;
+    private final ProductPagingProperties pagingProperties;
+    private final ProductBulkProperties bulkProperties;
+    private final ProductCoalescingProperties coalescingProperties;
+
+    private final InsertBatcher insertBatcher;
+    private final SingleFlight<List<Object>, ProductPage> pageFlights;
+
+    public ProductService(
+            ProductRepository repository,
+            ProductCache cache,
+            ProductResponseCache responseCache,
+            ProductEventBus eventBus,
+            ProductSearchIndex searchIndex,
+            ProductPriceStats priceStats,
+            ProductStatsProperties statsProperties,
+            ProductPagingProperties pagingProperties,
+            ProductBulkProperties bulkProperties,
+            ProductCoalescingProperties coalescingProperties,
+            ProductInsertBatchingProperties insertBatchingProperties
+    ) {
+        this.repository = repository;
+        this.cache = cache;
+        this.responseCache = responseCache;
+        this.eventBus = eventBus;
+        this.searchIndex = searchIndex;
+        this.priceStats = priceStats;
+        this.statsProperties = statsProperties;
+        this.pagingProperties = pagingProperties;
+        this.bulkProperties = bulkProperties;
+        this.coalescingProperties = coalescingProperties;
+        this.insertBatcher = insertBatchingProperties.isEnabled()
+                ? new InsertBatcher(
+                        repository,
+                        this::created,
+                        insertBatchingProperties.getBatchSize(),
+                        insertBatchingProperties.getMaxDelay()
+                )
+                : null;
+        this.pageFlights = new SingleFlight<>(coalescingProperties.getListWindow());
+    }
+
+    /**
+     * Returns the products matching the filter with an id greater than {@code after} (or the first ones when it is
+     * null). The limit falls back to the configured default and is capped at the configured maximum. Only pages in id
+     * order can be continued, so other orders have no next cursor and reject {@code after}.
+     */
+    public Mono<ProductPage> findPage(ProductFilter filter, String after, Integer limit) {
+        if (after != null && !filter.isSortedById()) {
+            return Mono.error(afterRequiresIdOrder());
+        }
+
+        int pageSize = limit == null
+                ? pagingProperties.getDefaultLimit()
+                : Math.max(1, Math.min(limit, pagingProperties.getMaxLimit()));
+
+        return coalesce(pageFlights, Arrays.asList(filter, after, pageSize), () -> queryPage(filter, after, pageSize));
+    }
+
+    /**
+     * Streams the products matching the filter with an id greater than {@code after} (or all of them when it is
+     * null), straight off the cursor and optionally up to {@code limit} products. There is no maximum: demand from
+     * the subscriber drives the cursor, so nothing is collected in memory.
+     */
+    public Flux<Product> stream(ProductFilter filter, String after, Integer limit) {
+        if (after != null && !filter.isSortedById()) {
+            return Flux.error(afterRequiresIdOrder());
+        }
+        if (!filter.isEmpty()) {
+            return repository.findByFilter(filter, after, limit == null ? 0 : Math.max(1, limit));
+        }
+
+        Sort byId = Sort.by("id");
+        if (limit != null) {
+            Pageable pageable = PageRequest.of(0, Math.max(1, limit), byId);
+            return after == null
+                    ? repository.findAllBy(pageable)
+                    : repository.findByIdGreaterThan(after, pageable);
+        }
+
+        return after == null
+                ? repository.findAll(byId)
+                : repository.findByIdGreaterThan(after, byId);
+    }
+
+    /**
+     * Looks the product up in the cache, loading it on a miss. Concurrent misses of one id share a single call
+     * through the cache, so hits don't pay for coalescing.
+     */
+    public Mono<Product> findById(String id) {
+        return cache.get(id, repository::findById);
+    }
+
+    /**
+     * Whether a request accepting these media types can be answered from encoded responses.
+     */
+    public boolean servesEncoded(List<MediaType> accept) {
+        return responseCache.serves(accept);
+    }
+
+    /**
+     * The product's JSON response, encoded once and shared until it changes. Completes empty when it doesn't exist.
+     */
+    public Mono<EncodedResponse> findEncodedById(String id) {
+        return responseCache.product(id, this::findById);
+    }
+
+    /**
+     * The JSON response of the first page, for a request without query parameters, encoded once and shared until any
+     * product changes.
+     */
+    public Mono<EncodedResponse> findEncodedFirstPage(URI requestUri) {
+        return responseCache.firstPage(requestUri, () -> findPage(ProductFilter.NONE, null, null));
+    }
+
+    /**
+     * Looks the products up by id in the cache, loading all the missing ones with a single query, and returns them in
+     * the requested order with the ids that don't exist. Ids asked for more than once are returned once.
+     */
+    public Mono<ProductLookup> findAllById(List<String> ids) {
+        if (ids.size() > pagingProperties.getMaxBatchIds()) {
+            return Mono.error(new ServerWebInputException(
+                    "At most " + pagingProperties.getMaxBatchIds() + " ids can be looked up at once"));
+        }
+
+        Set<String> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty()) {
+            return Mono.just(new ProductLookup(List.of(), List.of()));
+        }
+
+        return cache.getAll(distinctIds, repository::findAllById)
+                    .map(found -> {
+                        List<Product> products = new ArrayList<>(found.size());
+                        List<String> missing = new ArrayList<>();
+                        for (String id : distinctIds) {
+                            Product product = found.get(id);
+                            if (product == null) {
+                                missing.add(id);
+                            } else {
+                                products.add(product);
+                            }
+                        }
+                        return new ProductLookup(products, missing);
+                    });
+    }
+
+    /**
+     * Products whose names best match the query, best first, from the search index.
+     */
+    public Mono<List<Product>> search(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return Mono.error(new ServerWebInputException("Query parameter 'q' must not be blank"));
+        }
+        return Mono.fromSupplier(() -> searchIndex.search(query, limit));
+    }
+
+    /**
+     * Price statistics in the given mode, the running ones when it is null.
+     */
+    public Mono<ProductStats> stats(String mode) {
+        ProductStatsMode statsMode;
+        try {
+            statsMode = ProductStatsMode.of(mode);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ServerWebInputException("Query parameter 'mode' must be 'running' or 'aggregate'"));
+        }
+        return statsMode == ProductStatsMode.RUNNING
+                ? Mono.fromSupplier(priceStats::stats)
+                : repository.aggregatePriceStats(statsProperties.getPercentiles());
+    }
+
+    /**
+     * Compares the running price statistics with aggregated ones.
+     */
+    public Mono<ProductStatsCheck> checkStats() {
+        return Mono.fromSupplier(priceStats::stats)
+                   .zipWith(repository.aggregatePriceStats(statsProperties.getPercentiles()))
+                   .map(stats -> ProductStatsCheck.of(
+                           stats.getT1(),
+                           stats.getT2(),
+                           statsProperties.getRelativeAccuracy()
+                   ));
+    }
+
+    /**
+     * Creates the product. With insert batching enabled, products without an id are written together with concurrent
+     * creates, and the batcher caches and publishes them once written, even when the caller has cancelled by then.
+     */
+    public Mono<Product> save(Product product) {
+        product.setVersion(null);
+        product.setLastModified(Instant.now());
+
+        if (insertBatcher != null && product.getId() == null) {
+            return insertBatcher.insert(product);
+        }
+        return repository.save(product).doOnNext(this::created);
+    }
+
+    /**
+     * Inserts the products in batches bounded by size and age, one insert per batch, and emits a summary per batch.
+     * Only one batch is assembled ahead of the running insert, so a slow database slows down reading the source.
+     * <p>
+     * Ticks a few times per max delay check the age of the open batch, so a source that stalls after a partial batch
+     * doesn't hold it back. Ticks that come while a closed batch still waits for the insert are dropped rather than
+     * failing the stream, as a timed {@code bufferTimeout} would without demand.
+     */
+    public Flux<ProductBatch> insertAll(Flux<Product> products) {
+        return Flux.defer(() -> products.map(Optional::of)
+                                        .publish(source -> Flux.merge(1, source, batchTicks().takeUntilOther(source.then())))
+                                        .bufferUntil(batchBoundary()))
+                   .map(ProductService::withoutTicks)
+                   .filter(batch -> !batch.isEmpty())
+                   .index()
+                   .concatMap(batch -> insertBatch(batch.getT1(), batch.getT2()), 1);
+    }
+
+    /**
+     * Updates the product when it exists and creates it, keeping its id, when it doesn't, in one atomic write, so
+     * concurrent upserts of a new id create it once and update it afterwards.
+     */
+    public Mono<Product> upsert(Product product) {
+        if (product.getId() == null) {
+            return save(product);
+        }
+
+        Product upserted = new Product(product.getId(), product.getName(), product.getPrice(), 1L, Instant.now());
+        return repository.findAndUpsert(upserted.getId(), upserted)
+                         .map(previous -> {
+                             upserted.setVersion(previous.getVersion() == null ? 1L : previous.getVersion() + 1);
+                             return ProductEventType.UPDATED;
+                         })
+                         .defaultIfEmpty(ProductEventType.CREATED)
+                         .map(eventType -> {
+                             cache.put(upserted);
+                             publish(eventType, upserted);
+                             return upserted;
+                         });
+    }
+
+    /**
+     * Upserts the products as they arrive, a bounded number at a time, and answers each one in the order they came
+     * with the stored product or, when it can't be read or stored, the error, so one bad product doesn't end the
+     * stream. The source is only read as fast as upserts complete, so a slow database slows down the sender.
+     */
+    public Flux<ProductUpsert> upsertAll(Flux<Mono<Product>> products) {
+        return products.index()
+                       .flatMapSequential(product -> upsert(product.getT1(), product.getT2()),
+                                          bulkProperties.getUpsertConcurrency());
+    }
+
+    private Mono<ProductUpsert> upsert(long index, Mono<Product> product) {
+        return product.switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Product must not be null")))
+                      .flatMap(this::upsert)
+                      .map(upserted -> ProductUpsert.upserted(index, upserted))
+                      .onErrorResume(e -> Mono.just(ProductUpsert.failed(index, e.getMessage())));
+    }
+
+    /**
+     * Updates the product and emits it, or completes empty when it doesn't exist. With an expected version, fails
+     * with {@link ProductVersionMismatchException} when the product has moved on.
+     */
+    public Mono<Product> update(String id, Product product, Long expectedVersion) {
+        return repository.findAndUpdate(id, product, expectedVersion)
+                         .switchIfEmpty(versionMismatch(id, expectedVersion))
+                         .doOnNext(cache::put)
+                         .doOnNext(updatedProduct -> publish(ProductEventType.UPDATED, updatedProduct));
+    }
+
+    /**
+     * Deletes the product and emits it, or completes empty when it doesn't exist. With an expected version, fails
+     * with {@link ProductVersionMismatchException} when the product has moved on.
+     */
+    public Mono<Product> delete(String id, Long expectedVersion) {
+        return repository.findAndDeleteById(id, expectedVersion)
+                         .switchIfEmpty(versionMismatch(id, expectedVersion))
+                         .doOnSuccess(product -> cache.evict(id))
+                         .doOnNext(deletedProduct -> publish(ProductEventType.DELETED, deletedProduct));
+    }
+
+    public Mono<Void> deleteAll() {
+        return repository.deleteAll()
+                         .doOnSuccess(unused -> cache.evictAll())
+                         .doOnSuccess(unused -> publish(ProductEventType.DELETED_ALL, null));
+    }
+
+    public Flux<ServerSentEvent<ProductEvent>> events(String lastEventId) {
+        return eventBus.serverSentEvents(lastEventId);
+    }
+
+    /**
+     * Product changes after the event with the given id, or the replayed and new ones when there is no id.
+     */
+    public Flux<ProductEvent> productEvents(String lastEventId) {
+        return eventBus.events(lastEventId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("product.coalesced", cache, ProductCache::joinedLoads)
+                       .tag("operation", "findById")
+                       .description("Product lookups that joined an identical lookup in flight")
+                       .register(registry);
+        FunctionCounter.builder("product.coalesced", pageFlights, SingleFlight::coalesced)
+                       .tag("operation", "findPage")
+                       .description("Product lookups that joined an identical lookup in flight")
+                       .register(registry);
+        if (insertBatcher != null) {
+            FunctionCounter.builder("product.insert.batches", insertBatcher, InsertBatcher::batches)
+                           .description("Batch inserts of concurrently created products")
+                           .register(registry);
+            FunctionCounter.builder("product.insert.batched", insertBatcher, InsertBatcher::batched)
+                           .description("Created products written in a batch insert")
+                           .register(registry);
+        }
+    }
+
+    private Mono<ProductPage> queryPage(ProductFilter filter, String after, int pageSize) {
+        // one extra row tells whether there is a next page without a count query
+        Flux<Product> products;
+        if (filter.isEmpty()) {
+            Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by("id"));
+            products = after == null
+                    ? repository.findAllBy(pageable)
+                    : repository.findByIdGreaterThan(after, pageable);
+        } else {
+            products = repository.findByFilter(filter, after, pageSize + 1);
+        }
+
+        return products
+                .collectList()
+                .map(list -> list.size() > pageSize
+                        ? new ProductPage(list.subList(0, pageSize), pageSize, nextCursor(filter, list.get(pageSize - 1)))
+                        : new ProductPage(list, pageSize, null));
+    }
+
+    private <K, V> Mono<V> coalesce(SingleFlight<K, V> flights, K key, Supplier<Mono<V>> call) {
+        return coalescingProperties.isEnabled() ? flights.execute(key, call) : Mono.defer(call);
+    }
+
+    /**
+     * Publishes a change, after applying it to the search index and the price statistics and evicting encoded
+     * responses that may show it, and no page read before it is shared any more.
+     */
+    private void created(Product product) {
+        cache.put(product);
+        publish(ProductEventType.CREATED, product);
+    }
+
+    private void publish(ProductEventType eventType, Product product) {
+        pageFlights.forgetAll();
+        switch (eventType) {
+            case CREATED:
+            case UPDATED:
+                searchIndex.index(product);
+                priceStats.put(product);
+                responseCache.evict(product.getId());
+                break;
+            case DELETED:
+                searchIndex.remove(product.getId());
+                priceStats.remove(product.getId());
+                responseCache.evict(product.getId());
+                break;
+            case DELETED_ALL:
+                searchIndex.clear();
+                priceStats.clear();
+                responseCache.evictAll();
+                break;
+        }
+        eventBus.publish(eventType, product);
+    }
+
+    private static String nextCursor(ProductFilter filter, Product last) {
+        return filter.isSortedById() ? last.getId() : null;
+    }
+
+    private static ServerWebInputException afterRequiresIdOrder() {
+        return new ServerWebInputException("Query parameter 'after' can only be used when sorting by id");
+    }
+
+    /**
+     * Tells a conditional write that missed on version apart from one that missed on id; the extra lookup only
+     * happens on the failure path.
+     */
+    private Mono<Product> versionMismatch(String id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> repository.existsById(id))
+                   .flatMap(exists -> exists
+                           ? Mono.error(new ProductVersionMismatchException(id, expectedVersion))
+                           : Mono.empty());
+    }
+
+    private Mono<ProductBatch> insertBatch(long index, List<Product> batch) {
+        Instant now = Instant.now();
+        batch.forEach(product -> {
+            product.setVersion(0L);
+            product.setLastModified(now);
+        });
+
+        return repository.insert(batch)
+                         .doOnNext(insertedProduct -> publish(ProductEventType.CREATED, insertedProduct))
+                         .collectList()
+                         .map(inserted -> new ProductBatch(
+                                 index,
+                                 inserted.size(),
+                                 inserted.get(0).getId(),
+                                 inserted.get(inserted.size() - 1).getId()
+                         ));
+    }
+
+    /**
+     * Empty elements that make the batch boundary check the age of the open batch between products.
+     */
+    private Flux<Optional<Product>> batchTicks() {
+        return Flux.interval(bulkProperties.getMaxDelay().dividedBy(BATCH_TICKS_PER_MAX_DELAY))
+                   .onBackpressureDrop()
+                   .map(tick -> Optional.empty());
+    }
+
+    /**
+     * Closes the batch once it is full, or on a product or a tick once it is as old as the max delay. Ages are taken
+     * from the scheduler the ticks run on, so they follow virtual time in tests.
+     */
+    private Predicate<Optional<Product>> batchBoundary() {
+        int batchSize = bulkProperties.getBatchSize();
+        long maxDelayNanos = bulkProperties.getMaxDelay().toNanos();
+
+        return new Predicate<>() {
+            private int size;
+            private long openedAt;
+
+            @Override
+            public boolean test(Optional<Product> product) {
+                long now = Schedulers.parallel().now(TimeUnit.NANOSECONDS);
+                if (product.isPresent() && size++ == 0) {
+                    openedAt = now;
+                }
+                if (size > 0 && (size >= batchSize || now - openedAt >= maxDelayNanos)) {
+                    size = 0;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static List<Product> withoutTicks(List<Optional<Product>> batch) {
+        List<Product> products = new ArrayList<>(batch.size());
+        batch.forEach(product -> product.ifPresent(products::add));
+        return products;
+    }
+
+}
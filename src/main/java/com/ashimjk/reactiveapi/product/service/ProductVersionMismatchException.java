@@ -0,0 +1,15 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class ProductVersionMismatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ProductVersionMismatchException(String id, long expectedVersion) {
+        super("Product " + id + " is not at version " + expectedVersion);
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent calls with the same key share one execution: the first caller starts it and later callers
+ * subscribe to its result until it lands. A successful result can stay shared for a short window afterwards; failed
+ * and empty ones are never kept beyond the callers that were already waiting.
+ */
+class SingleFlight<K, V> {
+
+    private final Duration window;
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    SingleFlight(Duration window) {
+        this.window = window;
+    }
+
+    Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            Flight<V> flight = new Flight<>();
+            flight.result = Mono.defer(call)
+                                .doOnNext(value -> flight.succeeded = true)
+                                .doFinally(signalType -> land(key, flight, signalType))
+                                .cache();
+
+            Flight<V> pending = flights.putIfAbsent(key, flight);
+            if (pending != null) {
+                coalesced.incrementAndGet();
+                return pending.result;
+            }
+            return flight.result;
+        });
+    }
+
+    /**
+     * Ends sharing for every key, so that calls made from now on execute again.
+     */
+    void forgetAll() {
+        flights.clear();
+    }
+
+    long coalesced() {
+        return coalesced.get();
+    }
+
+    private void land(K key, Flight<V> flight, SignalType signalType) {
+        if (signalType == SignalType.ON_COMPLETE && flight.succeeded && !window.isZero()) {
+            Schedulers.parallel().schedule(() -> flights.remove(key, flight), window.toNanos(), TimeUnit.NANOSECONDS);
+        } else {
+            flights.remove(key, flight);
+        }
+    }
+
+    private static final class Flight<V> {
+
+        private Mono<V> result;
+        private volatile boolean succeeded;
+
+    }
+
+}
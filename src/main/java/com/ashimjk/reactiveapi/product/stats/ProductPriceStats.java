@@ -0,0 +1,185 @@
+package com.ashimjk.reactiveapi.product.stats;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsMode;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running price statistics, kept up to date by {@code ProductService} on every change so that reading them costs
+ * nothing like a pass over the collection.
+ * <p>
+ * Count and sum are exact, minimum and maximum come from the distinct prices in order. Percentiles come from a
+ * histogram of logarithmic buckets, each one within the configured relative accuracy of the prices it holds, so they
+ * are approximate and take time in the number of buckets rather than products. The last price of every product is
+ * kept to take it out again on update or delete.
+ * <p>
+ * Writes are serialized. The statistics are computed on the first read after a write and shared until the next one.
+ */
+@Component
+@EnableConfigurationProperties(ProductStatsProperties.class)
+public class ProductPriceStats {
+
+    private final ProductStatsProperties properties;
+    private final double gamma;
+    private final double logGamma;
+
+    private final Map<String, Double> pricesById = new HashMap<>();
+    private final TreeMap<Double, Integer> prices = new TreeMap<>();
+    private final TreeMap<Integer, Long> positiveBuckets = new TreeMap<>();
+    private final TreeMap<Integer, Long> negativeBuckets = new TreeMap<>(Collections.reverseOrder());
+    private long zeros;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private final Object writeLock = new Object();
+
+    private volatile ProductStats stats;
+
+    public ProductPriceStats(ProductStatsProperties properties) {
+        this.properties = properties;
+        this.gamma = (1 + properties.getRelativeAccuracy()) / (1 - properties.getRelativeAccuracy());
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Adds the product's price, or replaces the price counted for its id. Products without a price are not counted.
+     */
+    public void put(Product product) {
+        synchronized (writeLock) {
+            Double previous = pricesById.remove(product.getId());
+            if (previous != null) {
+                record(previous, -1);
+            }
+            Double price = product.getPrice();
+            if (price != null && Double.isFinite(price)) {
+                pricesById.put(product.getId(), price);
+                record(price, 1);
+            }
+            stats = null;
+        }
+    }
+
+    public void remove(String id) {
+        synchronized (writeLock) {
+            Double previous = pricesById.remove(id);
+            if (previous != null) {
+                record(previous, -1);
+                stats = null;
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (writeLock) {
+            pricesById.clear();
+            prices.clear();
+            positiveBuckets.clear();
+            negativeBuckets.clear();
+            zeros = 0;
+            sum = BigDecimal.ZERO;
+            stats = null;
+        }
+    }
+
+    public ProductStats stats() {
+        ProductStats current = stats;
+        if (current == null) {
+            synchronized (writeLock) {
+                current = stats;
+                if (current == null) {
+                    current = compute();
+                    stats = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void record(double price, int delta) {
+        prices.compute(price, (key, count) -> add(count == null ? 0 : count, delta));
+        sum = delta > 0 ? sum.add(new BigDecimal(price)) : sum.subtract(new BigDecimal(price));
+        if (price > 0) {
+            adjust(positiveBuckets, bucket(price), delta);
+        } else if (price < 0) {
+            adjust(negativeBuckets, bucket(-price), delta);
+        } else {
+            zeros += delta;
+        }
+    }
+
+    private ProductStats compute() {
+        long count = pricesById.size();
+        if (count == 0) {
+            return ProductStats.empty(ProductStatsMode.RUNNING);
+        }
+
+        double min = prices.firstKey();
+        double max = prices.lastKey();
+        double avg = sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64).doubleValue();
+
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double percentile : properties.getPercentiles()) {
+            double value = Math.max(min, Math.min(max, valueAtRank(ProductStats.rank(percentile, count))));
+            percentiles.put(ProductStats.percentileName(percentile), value);
+        }
+        return new ProductStats(ProductStatsMode.RUNNING, count, min, max, avg, Collections.unmodifiableMap(percentiles));
+    }
+
+    /**
+     * Walks the buckets from the lowest prices up to the one holding the rank.
+     */
+    private double valueAtRank(long rank) {
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : negativeBuckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen >= rank) {
+                return -representative(bucket.getKey());
+            }
+        }
+        seen += zeros;
+        if (seen >= rank) {
+            return 0;
+        }
+        for (Map.Entry<Integer, Long> bucket : positiveBuckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen >= rank) {
+                return representative(bucket.getKey());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Bucket {@code i} holds the magnitudes in (gamma^(i-1), gamma^i].
+     */
+    private int bucket(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    /**
+     * The value within the relative accuracy of both ends of the bucket.
+     */
+    private double representative(int bucket) {
+        return 2 * Math.exp(bucket * logGamma) / (gamma + 1);
+    }
+
+    private static void adjust(TreeMap<Integer, Long> buckets, int bucket, int delta) {
+        buckets.compute(bucket, (key, count) -> {
+            long adjusted = (count == null ? 0 : count) + delta;
+            return adjusted == 0 ? null : adjusted;
+        });
+    }
+
+    private static Integer add(int count, int delta) {
+        return count + delta == 0 ? null : count + delta;
+    }
+
+}
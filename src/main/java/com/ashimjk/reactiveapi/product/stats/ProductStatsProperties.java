@@ -0,0 +1,23 @@
+package com.ashimjk.reactiveapi.product.stats;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "product.stats")
+public class ProductStatsProperties {
+
+    /**
+     * Price percentiles to report, between 0 and 1.
+     */
+    private List<Double> percentiles = List.of(0.5, 0.9, 0.95, 0.99);
+
+    /**
+     * Relative error allowed in running percentiles. Smaller values take more buckets, about ln(max / min) / (2 *
+     * accuracy) for prices between min and max.
+     */
+    private double relativeAccuracy = 0.01;
+
+}
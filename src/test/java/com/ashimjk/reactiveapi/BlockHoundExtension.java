@@ -0,0 +1,19 @@
+package com.ashimjk.reactiveapi;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import reactor.blockhound.BlockHound;
+
+/**
+ * Installs BlockHound, so a blocking call on a non-blocking thread, like the parallel scheduler requests are handled
+ * on by {@code WebTestClient}, fails the request with a {@code BlockingOperationError}. Once installed it stays for the
+ * rest of the test JVM.
+ */
+public class BlockHoundExtension implements BeforeAllCallback {
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        BlockHound.install();
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.ashimjk.reactiveapi;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.scheduler.Schedulers;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+// the test application.properties hides the main one, so the metrics settings it depends on are repeated here
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true"
+})
+@AutoConfigureWebTestClient
+@AutoConfigureMetrics
+@ActiveProfiles("memory")
+class MetricsEndpointTest {
+
+    @Autowired private WebTestClient client;
+
+    @BeforeAll
+    static void disposeSchedulers() {
+        // schedulers made by earlier tests in this JVM predate the initializer and would stay uninstrumented
+        Schedulers.shutdownNow();
+    }
+
+    @Test
+    void shouldScrapeRouteTimersAndSchedulerMetrics() {
+        client.get()
+              .uri("/controller/products")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk();
+        client.get()
+              .uri("/routes/products/{id}", "missing")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isNotFound();
+
+        String scrape = client.get()
+                              .uri("/actuator/prometheus")
+                              .exchange()
+                              .expectStatus().isOk()
+                              .expectBody(String.class)
+                              .returnResult()
+                              .getResponseBody();
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), scrape);
+        assertTrue(scrape.matches("(?s).*http_server_requests_seconds_count\\{[^}]*uri=\"/controller/products\".*"));
+        assertTrue(scrape.matches("(?s).*http_server_requests_seconds_count\\{[^}]*status=\"404\""
+                                          + "[^}]*uri=\"/routes/products/\\{id}\".*"));
+        assertTrue(scrape.matches("(?s).*executor_seconds_count\\{[^}]*reactor_scheduler_id=\"parallel.*"));
+        assertTrue(scrape.matches("(?s).*executor_seconds_count\\{[^}]*reactor_scheduler_id=\"boundedElastic.*"));
+    }
+
+}
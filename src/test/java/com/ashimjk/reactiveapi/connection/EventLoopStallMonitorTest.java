@@ -0,0 +1,74 @@
+package com.ashimjk.reactiveapi.connection;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventLoopStallMonitorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private NettyServerTuning tuning;
+    private EventLoopStallMonitor monitor;
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+        tuning.disposeLoops();
+    }
+
+    @Test
+    void shouldCountStall_andRecordItsDuration_whenEventLoopBlocks() throws InterruptedException {
+        startMonitor();
+        awaitUntil(() -> registry.get("connection.netty.event.loop.delay").timer().count() > 0);
+
+        // busy rather than sleeping or yielding, which BlockHound rejects once another test installed it
+        tuning.eventLoops().next().execute(() -> busy(Duration.ofMillis(300)));
+
+        awaitUntil(() -> registry.get("connection.netty.event.loop.stall").timer().count() == 1);
+        assertThat(registry.get("connection.netty.event.loop.stalls").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("connection.netty.event.loop.stall").timer().max(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void shouldNotCountStalls_whenEventLoopKeepsUp() throws InterruptedException {
+        startMonitor();
+
+        awaitUntil(() -> registry.get("connection.netty.event.loop.delay").timer().count() >= 10);
+        assertThat(registry.get("connection.netty.event.loop.stalls").functionCounter().count()).isZero();
+    }
+
+    private void startMonitor() {
+        NettyServerProperties properties = new NettyServerProperties();
+        properties.setEventLoopThreads(1);
+        properties.setStallProbeInterval(Duration.ofMillis(10));
+        properties.setStallThreshold(Duration.ofMillis(50));
+
+        tuning = new NettyServerTuning(properties);
+        monitor = new EventLoopStallMonitor(properties, tuning);
+        monitor.bindTo(registry);
+        monitor.start();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 5s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void busy(Duration duration) {
+        long until = System.nanoTime() + duration.toNanos();
+        while (System.nanoTime() < until) {
+            // spin
+        }
+    }
+
+}
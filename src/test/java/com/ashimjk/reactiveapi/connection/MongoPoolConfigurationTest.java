@@ -0,0 +1,44 @@
+package com.ashimjk.reactiveapi.connection;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.connection.ConnectionPoolSettings;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoPoolConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ValidationAutoConfiguration.class))
+            .withUserConfiguration(MongoPoolConfiguration.class);
+
+    @Test
+    void shouldApplyThePoolProperties_toTheClientSettings() {
+        contextRunner.withPropertyValues("connection.mongo.max-size=50", "connection.mongo.min-size=5",
+                                         "connection.mongo.max-wait-time=2s")
+                     .run(context -> {
+                         MongoClientSettings.Builder builder = MongoClientSettings.builder();
+                         context.getBean(MongoClientSettingsBuilderCustomizer.class).customize(builder);
+                         ConnectionPoolSettings pool = builder.build().getConnectionPoolSettings();
+
+                         assertThat(pool.getMaxSize()).isEqualTo(50);
+                         assertThat(pool.getMinSize()).isEqualTo(5);
+                         assertThat(pool.getMaxWaitTime(TimeUnit.MILLISECONDS)).isEqualTo(2000);
+                     });
+    }
+
+    @Test
+    void shouldFailToStart_whenMinSizeExceedsMaxSize() {
+        contextRunner.withPropertyValues("connection.mongo.max-size=5", "connection.mongo.min-size=10")
+                     .run(context -> assertThat(context).hasFailed()
+                                                        .getFailure()
+                                                        .hasStackTraceContaining("min-size must not exceed max-size"));
+    }
+
+}
@@ -0,0 +1,241 @@
+package com.ashimjk.reactiveapi.product.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionWebFilterTest {
+
+    private static final WebFilterChain COMPLETING_CHAIN = exchange -> Mono.empty();
+    private static final WebFilterChain HANGING_CHAIN = exchange -> Mono.never();
+
+    @Test
+    void shouldRejectWithTooManyRequests_whenClientExceedsItsRate() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRequestsPerSecond(0.5);
+        properties.setBurst(1);
+        AdmissionWebFilter filter = new AdmissionWebFilter(properties);
+
+        MockServerWebExchange first = exchange("/routes/products", "10.0.0.1");
+        filter.filter(first, COMPLETING_CHAIN).block();
+        assertNull(first.getResponse().getStatusCode());
+
+        MockServerWebExchange second = exchange("/routes/products", "10.0.0.1");
+        filter.filter(second, COMPLETING_CHAIN).block();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+        assertEquals("2", second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        MockServerWebExchange otherClient = exchange("/routes/products", "10.0.0.2");
+        filter.filter(otherClient, COMPLETING_CHAIN).block();
+        assertNull(otherClient.getResponse().getStatusCode());
+    }
+
+    @Test
+    void shouldIgnoreClientIdHeader_unlessTrusted() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRequestsPerSecond(0.5);
+        properties.setBurst(1);
+        AdmissionWebFilter filter = new AdmissionWebFilter(properties);
+
+        filter.filter(exchange("/routes/products", "10.0.0.1", "client-a"), COMPLETING_CHAIN).block();
+
+        MockServerWebExchange freshId = exchange("/routes/products", "10.0.0.1", "client-b");
+        filter.filter(freshId, COMPLETING_CHAIN).block();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, freshId.getResponse().getStatusCode());
+    }
+
+    @Test
+    void shouldKeyRateLimitsOnClientIdHeader_whenTrusted() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRequestsPerSecond(0.5);
+        properties.setBurst(1);
+        properties.setTrustClientIdHeader(true);
+        AdmissionWebFilter filter = new AdmissionWebFilter(properties);
+
+        filter.filter(exchange("/routes/products", "10.0.0.1", "client-a"), COMPLETING_CHAIN).block();
+
+        MockServerWebExchange sameId = exchange("/routes/products", "10.0.0.2", "client-a");
+        filter.filter(sameId, COMPLETING_CHAIN).block();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, sameId.getResponse().getStatusCode());
+
+        MockServerWebExchange otherId = exchange("/routes/products", "10.0.0.1", "client-b");
+        filter.filter(otherId, COMPLETING_CHAIN).block();
+        assertNull(otherId.getResponse().getStatusCode());
+    }
+
+    @Test
+    void shouldRejectWithServiceUnavailable_whenConcurrencyLimitIsReached() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxConcurrency(1);
+        properties.setMinConcurrency(1);
+        AdmissionWebFilter filter = new AdmissionWebFilter(properties);
+
+        Disposable inFlight = filter.filter(exchange("/controller/products", "10.0.0.1"), HANGING_CHAIN).subscribe();
+
+        MockServerWebExchange rejected = exchange("/controller/products", "10.0.0.2");
+        filter.filter(rejected, COMPLETING_CHAIN).block();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        inFlight.dispose();
+
+        MockServerWebExchange admitted = exchange("/controller/products", "10.0.0.2");
+        filter.filter(admitted, COMPLETING_CHAIN).block();
+        assertNull(admitted.getResponse().getStatusCode());
+    }
+
+    @Test
+    void shouldNotLimitEventStreams() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxConcurrency(1);
+        properties.setMinConcurrency(1);
+        AdmissionWebFilter filter = new AdmissionWebFilter(properties);
+
+        Disposable events = filter.filter(exchange("/routes/products/events", "10.0.0.1"), HANGING_CHAIN).subscribe();
+
+        MockServerWebExchange admitted = exchange("/routes/products", "10.0.0.1");
+        filter.filter(admitted, COMPLETING_CHAIN).block();
+        assertNull(admitted.getResponse().getStatusCode());
+
+        events.dispose();
+    }
+
+    @Test
+    void shouldOnlyLimitProductPaths_matchingWholeSegments() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRequestsPerSecond(0.5);
+        properties.setBurst(1);
+        AdmissionWebFilter filter = new AdmissionWebFilter(properties);
+
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange unrelated = exchange("/routes/productsearch", "10.0.0.1");
+            filter.filter(unrelated, COMPLETING_CHAIN).block();
+            assertNull(unrelated.getResponse().getStatusCode());
+        }
+
+        filter.filter(exchange("/routes/products", "10.0.0.1"), COMPLETING_CHAIN).block();
+
+        MockServerWebExchange product = exchange("/routes/products/1", "10.0.0.1");
+        filter.filter(product, COMPLETING_CHAIN).block();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, product.getResponse().getStatusCode());
+    }
+
+    @Test
+    void shouldNotHoldConcurrencyPermits_forStreamedListingsAndBulkUploads() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxConcurrency(1);
+        properties.setMinConcurrency(1);
+        AdmissionWebFilter filter = new AdmissionWebFilter(properties);
+
+        Disposable stream = filter.filter(
+                MockServerWebExchange.from(MockServerHttpRequest.get("/routes/products")
+                                                                .remoteAddress(address("10.0.0.1"))
+                                                                .accept(MediaType.APPLICATION_NDJSON)),
+                HANGING_CHAIN
+        ).subscribe();
+        Disposable bulk = filter.filter(
+                MockServerWebExchange.from(MockServerHttpRequest.post("/routes/products/bulk")
+                                                                .remoteAddress(address("10.0.0.1"))
+                                                                .contentType(MediaType.APPLICATION_NDJSON)),
+                HANGING_CHAIN
+        ).subscribe();
+
+        MockServerWebExchange admitted = exchange("/routes/products", "10.0.0.1");
+        filter.filter(admitted, COMPLETING_CHAIN).block();
+        assertNull(admitted.getResponse().getStatusCode());
+
+        stream.dispose();
+        bulk.dispose();
+    }
+
+    @Test
+    void shouldRateLimitStreamedListings() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRequestsPerSecond(0.5);
+        properties.setBurst(1);
+        AdmissionWebFilter filter = new AdmissionWebFilter(properties);
+
+        filter.filter(exchange("/routes/products", "10.0.0.1"), COMPLETING_CHAIN).block();
+
+        MockServerWebExchange stream = MockServerWebExchange.from(MockServerHttpRequest.get("/routes/products")
+                                                                                        .remoteAddress(address("10.0.0.1"))
+                                                                                        .accept(MediaType.APPLICATION_NDJSON));
+        filter.filter(stream, COMPLETING_CHAIN).block();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, stream.getResponse().getStatusCode());
+    }
+
+    @Test
+    void shouldShrinkConcurrencyLimit_whenLatencyExceedsTarget_andGrowItBack() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxConcurrency(100);
+        properties.setMinConcurrency(10);
+        properties.setTargetLatency(Duration.ofMillis(100));
+        ConcurrencyLimit limit = new ConcurrencyLimit(properties, 0);
+
+        long now = 0;
+        for (int i = 0; i < 50; i++) {
+            now += Duration.ofMillis(100).toNanos();
+            limit.tryAcquire();
+            limit.release(Duration.ofMillis(500).toNanos(), true, now);
+        }
+        assertEquals(10, limit.limit());
+
+        for (int i = 0; i < 50; i++) {
+            now += Duration.ofMillis(10).toNanos();
+            for (int j = 0; j < limit.limit(); j++) {
+                limit.tryAcquire();
+            }
+            limit.release(Duration.ofMillis(10).toNanos(), true, now);
+            while (limit.inFlight() > 0) {
+                limit.release(0, false, now);
+            }
+        }
+        // the smoothed latency has to come down below the target first, then every fast response adds one
+        assertTrue(limit.limit() > 40, () -> "limit " + limit.limit());
+    }
+
+    @Test
+    void shouldShrinkConcurrencyLimit_oneTargetLatencyAfterCreation_whateverTheClockOrigin() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxConcurrency(100);
+        properties.setTargetLatency(Duration.ofMillis(100));
+        long createdAt = -Duration.ofHours(1).toNanos();
+        ConcurrencyLimit limit = new ConcurrencyLimit(properties, createdAt);
+
+        limit.tryAcquire();
+        limit.release(Duration.ofMillis(500).toNanos(), true, createdAt + Duration.ofMillis(50).toNanos());
+        assertEquals(100, limit.limit());
+
+        limit.tryAcquire();
+        limit.release(Duration.ofMillis(500).toNanos(), true, createdAt + Duration.ofMillis(100).toNanos());
+        assertEquals(90, limit.limit());
+    }
+
+    private static MockServerWebExchange exchange(String path, String clientAddress) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path).remoteAddress(address(clientAddress)));
+    }
+
+    private static MockServerWebExchange exchange(String path, String clientAddress, String clientId) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path)
+                                                               .remoteAddress(address(clientAddress))
+                                                               .header("X-Client-Id", clientId));
+    }
+
+    private static InetSocketAddress address(String host) {
+        return new InetSocketAddress(host, 54321);
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.ashimjk.reactiveapi.product.cache;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductLookup;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.service.ProductService;
+import com.ashimjk.reactiveapi.product.service.ProductServiceFixture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+    @Mock private ProductRepository repository;
+
+    private ProductService productService;
+
+    @BeforeEach
+    void setup() {
+        productService = ProductServiceFixture.of(repository).build();
+    }
+
+    @Test
+    void shouldServeRepeatedFindByIdFromCache() {
+        Product product = new Product("1", "Big Latte", 2.99);
+        when(repository.findById("1")).thenReturn(Mono.just(product));
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(productService.findById("1"))
+                        .expectNext(product)
+                        .verifyComplete();
+        }
+
+        verify(repository, times(1)).findById("1");
+    }
+
+    @Test
+    void shouldReloadProductFromRepository_afterDelete() {
+        Product product = new Product("1", "Big Latte", 2.99);
+        when(repository.findById("1")).thenReturn(Mono.just(product));
+        when(repository.findAndDeleteById("1", null)).thenReturn(Mono.just(product));
+
+        productService.findById("1").block();
+        productService.delete("1", null).block();
+        productService.findById("1").block();
+
+        verify(repository, times(2)).findById("1");
+    }
+
+    @Test
+    void shouldNotCacheMissingProducts() {
+        when(repository.findById("1")).thenReturn(Mono.empty());
+
+        productService.findById("1").block();
+        productService.findById("1").block();
+
+        verify(repository, times(2)).findById("1");
+    }
+
+    @Test
+    void shouldGetProductsById_loadingOnlyThoseNotCached() {
+        Product latte = new Product("1", "Big Latte", 2.99);
+        Product tea = new Product("2", "Small Tea", 1.99);
+        when(repository.findById("1")).thenReturn(Mono.just(latte));
+        when(repository.findAllById(List.of("2"))).thenReturn(Flux.just(tea));
+
+        productService.findById("1").block();
+
+        StepVerifier.create(productService.findAllById(List.of("1", "2")))
+                    .assertNext(lookup -> assertEquals(new ProductLookup(List.of(latte, tea), List.of()), lookup))
+                    .verifyComplete();
+
+        verify(repository).findAllById(List.of("2"));
+    }
+
+}
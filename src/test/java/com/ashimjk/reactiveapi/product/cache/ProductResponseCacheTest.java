@@ -0,0 +1,159 @@
+package com.ashimjk.reactiveapi.product.cache;
+
+import com.ashimjk.reactiveapi.product.controller.ProductController;
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.service.ProductServiceFixture;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@ExtendWith(MockitoExtension.class)
+class ProductResponseCacheTest {
+
+    @Mock private ProductRepository repository;
+
+    private ObjectMapper objectMapper;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setup() {
+        ProductServiceFixture fixture = ProductServiceFixture.of(repository);
+        objectMapper = fixture.objectMapper();
+        client = WebTestClient.bindToController(new ProductController(fixture.build()))
+                              .configureClient()
+                              .baseUrl("/controller/products")
+                              .build();
+    }
+
+    @Test
+    void shouldServeEncodedFirstPage_untilAProductChanges() {
+        Product product = new Product("1", "Big Latte", 2.99);
+        Product updatedProduct = new Product("1", "Big Latte", 3.49);
+        when(repository.findAllBy(any(Pageable.class)))
+                .thenReturn(Flux.just(product))
+                .thenReturn(Flux.just(updatedProduct));
+        when(repository.findAndUpdate(eq("1"), any(Product.class), isNull())).thenReturn(Mono.just(updatedProduct));
+
+        for (int i = 0; i < 3; i++) {
+            client.get()
+                  .uri("/")
+                  .accept(APPLICATION_JSON)
+                  .exchange()
+                  .expectStatus().isOk()
+                  .expectBodyList(Product.class)
+                  .isEqualTo(List.of(product));
+        }
+
+        client.put()
+              .uri("/{id}", "1")
+              .contentType(APPLICATION_JSON)
+              .bodyValue(updatedProduct)
+              .exchange()
+              .expectStatus().isOk();
+
+        client.get()
+              .uri("/")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectBodyList(Product.class)
+              .isEqualTo(List.of(updatedProduct));
+
+        verify(repository, times(2)).findAllBy(any(Pageable.class));
+    }
+
+    @Test
+    void shouldServeReencodedProduct_afterUpdate() {
+        Product product = new Product("1", "Big Latte", 2.99, 3L, null);
+        Product updatedProduct = new Product("1", "Big Latte", 3.49, 4L, null);
+        when(repository.findById("1")).thenReturn(Mono.just(product));
+        when(repository.findAndUpdate(eq("1"), any(Product.class), isNull())).thenReturn(Mono.just(updatedProduct));
+
+        client.get()
+              .uri("/{id}", "1")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3-json\"")
+              .expectBody(Product.class)
+              .isEqualTo(product);
+
+        client.put()
+              .uri("/{id}", "1")
+              .contentType(APPLICATION_JSON)
+              .bodyValue(updatedProduct)
+              .exchange()
+              .expectStatus().isOk();
+
+        client.get()
+              .uri("/{id}", "1")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4-json\"")
+              .expectBody(Product.class)
+              .isEqualTo(updatedProduct);
+    }
+
+    @Test
+    void shouldGzipEncodedFirstPage_whenClientAcceptsGzip() throws IOException {
+        List<Product> products = IntStream.range(0, 50)
+                                          .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.99))
+                                          .collect(Collectors.toList());
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.fromIterable(products));
+
+        byte[] body = client.get()
+                            .uri("/")
+                            .accept(APPLICATION_JSON)
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                            .exchange()
+                            .expectStatus().isOk()
+                            .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                            .expectHeader().valueEquals(HttpHeaders.VARY,
+                                                        HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                            .expectHeader().valueMatches(HttpHeaders.ETAG, "\"[0-9a-f]+-json-gzip\"")
+                            .expectBody(byte[].class)
+                            .returnResult()
+                            .getResponseBody();
+
+        try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(products, List.of(objectMapper.readValue(json, Product[].class)));
+        }
+
+        client.get()
+              .uri("/")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+              .expectHeader().valueMatches(HttpHeaders.ETAG, "\"[0-9a-f]+-json\"")
+              .expectBodyList(Product.class)
+              .isEqualTo(products);
+    }
+
+}
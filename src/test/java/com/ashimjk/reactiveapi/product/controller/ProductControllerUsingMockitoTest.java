@@ -1,13 +1,28 @@
 package com.ashimjk.reactiveapi.product.controller;
 
+import com.ashimjk.reactiveapi.product.event.ProductEventBus;
 import com.ashimjk.reactiveapi.product.model.Product;
 import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.model.ProductLookup;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsCheck;
+import com.ashimjk.reactiveapi.product.model.ProductStatsMode;
 import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.service.ProductPagingProperties;
+import com.ashimjk.reactiveapi.product.service.ProductServiceFixture;
+import com.ashimjk.reactiveapi.product.stats.ProductStatsProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.FluxExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -16,8 +31,20 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static com.ashimjk.reactiveapi.product.codec.ProductMediaTypes.APPLICATION_SMILE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
@@ -26,14 +53,18 @@ class ProductControllerUsingMockitoTest {
 
     @Mock private ProductRepository repository;
 
+    private ProductEventBus eventBus;
     private WebTestClient client;
     private List<Product> expectedList;
 
     @BeforeEach
     void setup() {
+        ProductServiceFixture fixture = ProductServiceFixture.of(repository);
+        eventBus = fixture.eventBus();
+
         client =
                 WebTestClient
-                        .bindToController(new ProductController(repository))
+                        .bindToController(new ProductController(fixture.build()))
                         .configureClient()
                         .baseUrl("/controller/products")
                         .build();
@@ -43,7 +74,7 @@ class ProductControllerUsingMockitoTest {
 
     @Test
     void shouldGetAllProducts() {
-        when(repository.findAll()).thenReturn(Flux.fromIterable(this.expectedList));
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.fromIterable(this.expectedList));
 
         client.get()
               .uri("/")
@@ -54,6 +85,69 @@ class ProductControllerUsingMockitoTest {
               .isEqualTo(expectedList);
     }
 
+    @Test
+    void shouldGetJsonArray_whenAcceptingAnything() {
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.fromIterable(this.expectedList));
+
+        client.get()
+              .uri("/")
+              .accept(MediaType.ALL)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().contentType(APPLICATION_JSON)
+              .expectBodyList(Product.class)
+              .isEqualTo(expectedList);
+    }
+
+    @Test
+    void shouldStreamProductsAsNdjson_onDemand() {
+        List<Product> products = IntStream.range(0, 500)
+                                          .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.99))
+                                          .collect(Collectors.toList());
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        when(repository.findAll(Sort.by("id"))).thenReturn(Flux.fromIterable(products).doOnRequest(requests::add));
+
+        client.get()
+              .uri("/")
+              .accept(MediaType.APPLICATION_NDJSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+              .expectBodyList(Product.class)
+              .isEqualTo(products);
+
+        assertTrue(requests.stream().allMatch(request -> request < Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldLinkToNextPage_whenMoreProductsThanLimit() {
+        List<Product> products = List.of(new Product("1", "Big Latte", 2.99), new Product("2", "Big Decaf", 2.49));
+        when(repository.findAllBy(PageRequest.of(0, 2, Sort.by("id")))).thenReturn(Flux.fromIterable(products));
+
+        client.get()
+              .uri("/?limit=1")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals(HttpHeaders.LINK, "</controller/products/?after=1&limit=1>; rel=\"next\"")
+              .expectBodyList(Product.class)
+              .isEqualTo(products.subList(0, 1));
+    }
+
+    @Test
+    void shouldFilterProductsByNamePrefixAndPriceRange() {
+        ProductFilter filter = ProductFilter.of(null, "Big", 2.0, 3.0, "price,desc");
+        when(repository.findByFilter(filter, null, 101)).thenReturn(Flux.fromIterable(this.expectedList));
+
+        client.get()
+              .uri("/?namePrefix=Big&minPrice=2&maxPrice=3&sort=price,desc")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectBodyList(Product.class)
+              .isEqualTo(expectedList);
+    }
+
     @Test
     void shouldGetProductById() {
         Product expectedProduct = this.expectedList.get(0);
@@ -68,6 +162,147 @@ class ProductControllerUsingMockitoTest {
               .isEqualTo(expectedProduct);
     }
 
+    @Test
+    void shouldUpdateProductInSingleRepositoryCall() {
+        Product product = new Product(null, "Big Latte", 3.49);
+        Product updatedProduct = new Product("1", "Big Latte", 3.49);
+        when(repository.findAndUpdate("1", product, null)).thenReturn(Mono.just(updatedProduct));
+
+        client.put()
+              .uri("/{id}", "1")
+              .contentType(APPLICATION_JSON)
+              .bodyValue(product)
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody(Product.class)
+              .isEqualTo(updatedProduct);
+
+        verify(repository, never()).findById(any(String.class));
+    }
+
+    @Test
+    void shouldReturnNotFoundStatus_forUpdateProduct() {
+        Product product = new Product(null, "Big Latte", 3.49);
+        when(repository.findAndUpdate("aaa", product, null)).thenReturn(Mono.empty());
+
+        client.put()
+              .uri("/{id}", "aaa")
+              .contentType(APPLICATION_JSON)
+              .bodyValue(product)
+              .exchange()
+              .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldReturnNotModified_whenProductETagMatches() {
+        Product product = new Product("1", "Big Latte", 2.99, 3L, null);
+        when(repository.findById("1")).thenReturn(Mono.just(product));
+
+        client.get()
+              .uri("/{id}", "1")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3-json\"");
+
+        client.get()
+              .uri("/{id}", "1")
+              .accept(APPLICATION_JSON)
+              .header(HttpHeaders.IF_NONE_MATCH, "\"3-json\"")
+              .exchange()
+              .expectStatus().isNotModified()
+              .expectBody().isEmpty();
+    }
+
+    @Test
+    void shouldTagEachRepresentationOfAProductSeparately() {
+        when(repository.findById("1")).thenReturn(Mono.just(new Product("1", "Big Latte", 2.99, 3L, null)));
+
+        client.get()
+              .uri("/{id}", "1")
+              .accept(APPLICATION_SMILE)
+              .header(HttpHeaders.IF_NONE_MATCH, "\"3-json\"")
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().contentType(APPLICATION_SMILE)
+              .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3-smile\"")
+              .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void shouldReturnNotModified_whenProductListETagMatches() {
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.fromIterable(this.expectedList));
+
+        String etag = client.get()
+                            .uri("/")
+                            .accept(APPLICATION_JSON)
+                            .exchange()
+                            .expectStatus().isOk()
+                            .returnResult(Product.class)
+                            .getResponseHeaders()
+                            .getETag();
+
+        client.get()
+              .uri("/")
+              .accept(APPLICATION_JSON)
+              .header(HttpHeaders.IF_NONE_MATCH, etag)
+              .exchange()
+              .expectStatus().isNotModified();
+    }
+
+    @Test
+    void shouldUpdateProduct_whenIfMatchVersionMatches() {
+        Product product = new Product(null, "Big Latte", 3.49);
+        Product updatedProduct = new Product("1", "Big Latte", 3.49, 4L, null);
+        when(repository.findAndUpdate("1", product, 3L)).thenReturn(Mono.just(updatedProduct));
+
+        client.put()
+              .uri("/{id}", "1")
+              .contentType(APPLICATION_JSON)
+              .header(HttpHeaders.IF_MATCH, "\"3-cbor\"")
+              .bodyValue(product)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4-json\"");
+    }
+
+    @Test
+    void shouldReturnPreconditionFailed_whenIfMatchVersionIsStale() {
+        Product product = new Product(null, "Big Latte", 3.49);
+        when(repository.findAndUpdate("1", product, 2L)).thenReturn(Mono.empty());
+        when(repository.existsById("1")).thenReturn(Mono.just(true));
+
+        client.put()
+              .uri("/{id}", "1")
+              .contentType(APPLICATION_JSON)
+              .header(HttpHeaders.IF_MATCH, "\"2\"")
+              .bodyValue(product)
+              .exchange()
+              .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void shouldReturnPreconditionFailed_whenDeletingStaleVersion() {
+        when(repository.findAndDeleteById("1", 2L)).thenReturn(Mono.empty());
+        when(repository.existsById("1")).thenReturn(Mono.just(true));
+
+        client.delete()
+              .uri("/{id}", "1")
+              .header(HttpHeaders.IF_MATCH, "\"2\"")
+              .exchange()
+              .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void shouldReturnNotFoundStatus_forDeleteProduct() {
+        when(repository.findAndDeleteById("aaa", null)).thenReturn(Mono.empty());
+
+        client.delete()
+              .uri("/{id}", "aaa")
+              .exchange()
+              .expectStatus().isNotFound();
+    }
+
     @Test
     void shouldReturnNotFoundStatus_forGetProductById() {
         String id = "aaa";
@@ -81,7 +316,58 @@ class ProductControllerUsingMockitoTest {
 
     @Test
     void shouldGetProductEvents() {
-        ProductEvent expectedEvent = new ProductEvent("0", "Product Event");
+        Product product = this.expectedList.get(0);
+        eventBus.publish(ProductEventType.UPDATED, product);
+        eventBus.publish(ProductEventType.DELETED, product);
+
+        FluxExchangeResult<ProductEvent> result =
+                client.get()
+                      .uri("/events")
+                      .accept(MediaType.TEXT_EVENT_STREAM)
+                      .exchange()
+                      .expectStatus().isOk()
+                      .returnResult(ProductEvent.class);
+
+        StepVerifier.create(result.getResponseBody())
+                    .expectNext(new ProductEvent("1", ProductEventType.UPDATED, product))
+                    .consumeNextWith(event -> assertEquals("2", event.getEventId()))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void shouldGetOnlyMissedProductEvents_afterLastEventId() {
+        Product product = this.expectedList.get(0);
+        eventBus.publish(ProductEventType.CREATED, product);
+        eventBus.publish(ProductEventType.UPDATED, product);
+        eventBus.publish(ProductEventType.DELETED, product);
+
+        FluxExchangeResult<ProductEvent> result =
+                client.get()
+                      .uri("/events")
+                      .accept(MediaType.TEXT_EVENT_STREAM)
+                      .header("Last-Event-ID", "2")
+                      .exchange()
+                      .expectStatus().isOk()
+                      .returnResult(ProductEvent.class);
+
+        StepVerifier.create(result.getResponseBody())
+                    .expectNext(new ProductEvent("3", ProductEventType.DELETED, product))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void shouldPublishCreatedEvent_forCreateProduct() {
+        Product product = this.expectedList.get(0);
+        when(repository.save(any(Product.class))).thenReturn(Mono.just(product));
+
+        client.post()
+              .uri("/")
+              .contentType(APPLICATION_JSON)
+              .bodyValue(new Product(null, product.getName(), product.getPrice()))
+              .exchange()
+              .expectStatus().isCreated();
 
         FluxExchangeResult<ProductEvent> result =
                 client.get()
@@ -92,11 +378,158 @@ class ProductControllerUsingMockitoTest {
                       .returnResult(ProductEvent.class);
 
         StepVerifier.create(result.getResponseBody())
-                    .expectNext(expectedEvent)
-                    .expectNextCount(2)
-                    .consumeNextWith(event -> assertEquals("3", event.getEventId()))
+                    .expectNext(new ProductEvent("1", ProductEventType.CREATED, product))
                     .thenCancel()
                     .verify();
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldFindCreatedAndUpdatedProducts_bySearch() {
+        when(repository.save(any(Product.class))).thenReturn(Mono.just(new Product("1", "Big Latte", 2.99)));
+        when(repository.findAndUpdate(eq("1"), any(Product.class), isNull()))
+                .thenReturn(Mono.just(new Product("1", "Big Mocha", 3.49)));
+
+        client.post()
+              .uri("/")
+              .contentType(APPLICATION_JSON)
+              .bodyValue(new Product(null, "Big Latte", 2.99))
+              .exchange()
+              .expectStatus().isCreated();
+
+        client.get()
+              .uri("/search?q=lat")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectBodyList(Product.class)
+              .isEqualTo(List.of(new Product("1", "Big Latte", 2.99)));
+
+        client.put()
+              .uri("/{id}", "1")
+              .contentType(APPLICATION_JSON)
+              .bodyValue(new Product(null, "Big Mocha", 3.49))
+              .exchange()
+              .expectStatus().isOk();
+
+        client.get()
+              .uri("/search?q=latte")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectBodyList(Product.class)
+              .hasSize(0);
+    }
+
+    @Test
+    void shouldReturnBadRequest_forBlankSearch() {
+        client.get()
+              .uri("/search?q= ")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldKeepRunningStats_acrossCreateUpdateAndDelete() {
+        when(repository.save(any(Product.class)))
+                .thenReturn(Mono.just(new Product("1", "Big Latte", 2.99)))
+                .thenReturn(Mono.just(new Product("2", "Small Tea", 1.99)));
+        when(repository.findAndUpdate(eq("1"), any(Product.class), isNull()))
+                .thenReturn(Mono.just(new Product("1", "Big Latte", 3.49)));
+        when(repository.findAndDeleteById("2", null)).thenReturn(Mono.just(new Product("2", "Small Tea", 1.99)));
+
+        client.post().uri("/").contentType(APPLICATION_JSON).bodyValue(new Product(null, "Big Latte", 2.99))
+              .exchange().expectStatus().isCreated();
+        client.post().uri("/").contentType(APPLICATION_JSON).bodyValue(new Product(null, "Small Tea", 1.99))
+              .exchange().expectStatus().isCreated();
+        client.put().uri("/{id}", "1").contentType(APPLICATION_JSON).bodyValue(new Product(null, "Big Latte", 3.49))
+              .exchange().expectStatus().isOk();
+
+        ProductStats beforeDelete = getStats("/stats");
+        assertEquals(2, beforeDelete.getCount());
+        assertEquals(1.99, beforeDelete.getMin());
+        assertEquals(3.49, beforeDelete.getMax());
+        assertEquals(2.74, beforeDelete.getAvg(), 1e-12);
+
+        client.delete().uri("/{id}", "2").exchange().expectStatus().isOk();
+
+        ProductStats afterDelete = getStats("/stats?mode=running");
+        assertEquals(ProductStatsMode.RUNNING, afterDelete.getMode());
+        assertEquals(1, afterDelete.getCount());
+        assertEquals(3.49, afterDelete.getMin());
+        assertEquals(3.49, afterDelete.getAvg(), 1e-12);
+        assertEquals(3.49, afterDelete.getPercentiles().get("p50"), 3.49 * 0.01);
+    }
+
+    @Test
+    void shouldReportConsistentStats_whenRunningStatsMatchTheAggregate() {
+        when(repository.save(any(Product.class))).thenReturn(Mono.just(new Product("1", "Big Latte", 2.99)));
+        when(repository.aggregatePriceStats(anyList())).thenReturn(Mono.just(ProductStats.ofSorted(
+                ProductStatsMode.AGGREGATE, new double[]{2.99}, new ProductStatsProperties().getPercentiles())));
+
+        client.post().uri("/").contentType(APPLICATION_JSON).bodyValue(new Product(null, "Big Latte", 2.99))
+              .exchange().expectStatus().isCreated();
+
+        client.get()
+              .uri("/stats/check")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody(ProductStatsCheck.class)
+              .value(check -> assertTrue(check.isConsistent(), check.getDifferences()::toString));
+    }
+
+    @Test
+    void shouldReturnBadRequest_forUnknownStatsMode() {
+        client.get()
+              .uri("/stats?mode=sampled")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldGetProductsById_inRequestedOrder_withMissingIds() {
+        Product latte = new Product("1", "Big Latte", 2.99);
+        Product tea = new Product("2", "Small Tea", 1.99);
+        when(repository.findAllById(anyIterable())).thenReturn(Flux.just(tea, latte));
+
+        client.post()
+              .uri("/_batch")
+              .contentType(APPLICATION_JSON)
+              .accept(APPLICATION_JSON)
+              .bodyValue(List.of("1", "3", "2", "1"))
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody(ProductLookup.class)
+              .isEqualTo(new ProductLookup(List.of(latte, tea), List.of("3")));
+    }
+
+    @Test
+    void shouldReturnBadRequest_forTooManyIds() {
+        List<String> ids = IntStream.rangeClosed(1, new ProductPagingProperties().getMaxBatchIds() + 1)
+                                    .mapToObj(String::valueOf)
+                                    .collect(Collectors.toList());
+
+        client.post()
+              .uri("/_batch")
+              .contentType(APPLICATION_JSON)
+              .bodyValue(ids)
+              .exchange()
+              .expectStatus().isBadRequest();
+
+        verify(repository, never()).findAllById(anyIterable());
+    }
+
+    private ProductStats getStats(String uri) {
+        return client.get()
+                     .uri(uri)
+                     .accept(APPLICATION_JSON)
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectBody(ProductStats.class)
+                     .returnResult()
+                     .getResponseBody();
+    }
+
+}
@@ -1,8 +1,11 @@
 package com.ashimjk.reactiveapi.product.controller;
 
+import com.ashimjk.reactiveapi.product.event.ProductEventBus;
 import com.ashimjk.reactiveapi.product.model.Product;
 import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
 import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,11 +28,13 @@ class ProductControllerUsingSpringBootTest {
     private List<Product> expectedList;
 
     @Autowired private ProductRepository repository;
+    @Autowired private ProductService productService;
+    @Autowired private ProductEventBus eventBus;
 
     @BeforeEach
     void setup() {
         client = WebTestClient
-                .bindToController(new ProductController(repository))
+                .bindToController(new ProductController(productService))
                 .configureClient()
                 .baseUrl("/controller/products")
                 .build();
@@ -71,7 +76,8 @@ class ProductControllerUsingSpringBootTest {
 
     @Test
     void shouldGetProductEvents() {
-        ProductEvent expectedEvent = new ProductEvent("0", "Product Event");
+        Product product = new Product("42", "Flat White", 3.49);
+        eventBus.publish(ProductEventType.DELETED, product);
 
         FluxExchangeResult<ProductEvent> result =
                 client.get()
@@ -82,9 +88,8 @@ class ProductControllerUsingSpringBootTest {
                       .returnResult(ProductEvent.class);
 
         StepVerifier.create(result.getResponseBody())
-                    .expectNext(expectedEvent)
-                    .expectNextCount(2)
-                    .consumeNextWith(event -> assertEquals("3", event.getEventId()))
+                    .thenConsumeWhile(event -> event.getEventType() != ProductEventType.DELETED)
+                    .consumeNextWith(event -> assertEquals(product, event.getProduct()))
                     .thenCancel()
                     .verify();
     }
@@ -1,14 +1,26 @@
 package com.ashimjk.reactiveapi.product.controller;
 
+import com.ashimjk.reactiveapi.BlockHoundExtension;
+import com.ashimjk.reactiveapi.product.cache.ProductCache;
+import com.ashimjk.reactiveapi.product.cache.ProductResponseCache;
+import com.ashimjk.reactiveapi.product.codec.ProductCodecConfiguration;
+import com.ashimjk.reactiveapi.product.event.ProductEventBus;
 import com.ashimjk.reactiveapi.product.model.Product;
 import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
 import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.search.ProductSearchIndex;
+import com.ashimjk.reactiveapi.product.service.ProductService;
+import com.ashimjk.reactiveapi.product.stats.ProductPriceStats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.FluxExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -19,13 +31,27 @@ import reactor.test.StepVerifier;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static com.ashimjk.reactiveapi.product.codec.ProductMediaTypes.APPLICATION_SMILE;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
+@ExtendWith(BlockHoundExtension.class)
 @WebFluxTest(ProductController.class)
+@Import({
+        ProductService.class,
+        ProductCache.class,
+        ProductResponseCache.class,
+        ProductEventBus.class,
+        ProductSearchIndex.class,
+        ProductPriceStats.class,
+        ProductCodecConfiguration.class
+})
 class ProductControllerUsingWebFluxTest {
 
     @Autowired private WebTestClient client;
+    @Autowired private ProductEventBus eventBus;
     @MockBean private ProductRepository repository;
     @MockBean private CommandLineRunner commandLineRunner;
 
@@ -38,7 +64,7 @@ class ProductControllerUsingWebFluxTest {
 
     @Test
     void shouldGetAllProducts() {
-        when(repository.findAll()).thenReturn(Flux.fromIterable(this.expectedList));
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.fromIterable(this.expectedList));
 
         client.get()
               .uri("/controller/products/")
@@ -63,6 +89,39 @@ class ProductControllerUsingWebFluxTest {
               .isEqualTo(expectedProduct);
     }
 
+    @Test
+    void shouldGetProductByIdAsCbor() {
+        Product expectedProduct = new Product("5", "Flat White", 3.49);
+        when(repository.findById(expectedProduct.getId())).thenReturn(Mono.just(expectedProduct));
+
+        client.get()
+              .uri("/controller/products/{id}", expectedProduct.getId())
+              .accept(APPLICATION_CBOR)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().contentType(APPLICATION_CBOR)
+              .expectBody(Product.class)
+              .isEqualTo(expectedProduct);
+    }
+
+    @Test
+    void shouldCreateProductFromSmile() {
+        Product product = new Product(null, "Flat White", 3.49);
+        when(repository.save(any(Product.class)))
+                .thenAnswer(invocation -> Mono.just(new Product("6", product.getName(), product.getPrice())));
+
+        client.post()
+              .uri("/controller/products")
+              .contentType(APPLICATION_SMILE)
+              .accept(APPLICATION_SMILE)
+              .bodyValue(product)
+              .exchange()
+              .expectStatus().isCreated()
+              .expectHeader().contentType(APPLICATION_SMILE)
+              .expectBody(Product.class)
+              .isEqualTo(new Product("6", "Flat White", 3.49));
+    }
+
     @Test
     void shouldReturnNotFoundStatus_forGetProductById() {
         String id = "aaa";
@@ -76,7 +135,8 @@ class ProductControllerUsingWebFluxTest {
 
     @Test
     void shouldGetProductEvents() {
-        ProductEvent expectedEvent = new ProductEvent("0", "Product Event");
+        Product product = new Product("42", "Flat White", 3.49);
+        eventBus.publish(ProductEventType.DELETED, product);
 
         FluxExchangeResult<ProductEvent> result =
                 client.get()
@@ -87,9 +147,8 @@ class ProductControllerUsingWebFluxTest {
                       .returnResult(ProductEvent.class);
 
         StepVerifier.create(result.getResponseBody())
-                    .expectNext(expectedEvent)
-                    .expectNextCount(2)
-                    .consumeNextWith(event -> assertEquals("3", event.getEventId()))
+                    .thenConsumeWhile(event -> event.getEventType() != ProductEventType.DELETED)
+                    .consumeNextWith(event -> assertEquals(product, event.getProduct()))
                     .thenCancel()
                     .verify();
     }
@@ -0,0 +1,194 @@
+package com.ashimjk.reactiveapi.product.event;
+
+import com.ashimjk.reactiveapi.product.event.ProductEventProperties.OverflowPolicy;
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProductEventBusTest {
+
+    private final Product product = new Product("1", "Big Latte", 2.99);
+
+    @Test
+    void shouldReplayOnlyMostRecentEvents_toNewSubscriber() {
+        ProductEventBus eventBus = eventBus(OverflowPolicy.DROP_OLDEST);
+        publish(eventBus, 5);
+
+        StepVerifier.create(eventBus.events())
+                    .consumeNextWith(event -> assertEquals("4", event.getEventId()))
+                    .consumeNextWith(event -> assertEquals("5", event.getEventId()))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void shouldKeepOnlyLatestEvent_forSlowSubscriber_whenLatestOnly() {
+        ProductEventBus eventBus = eventBus(OverflowPolicy.LATEST_ONLY);
+
+        StepVerifier.create(eventBus.events(), 0)
+                    .then(() -> publish(eventBus, 3))
+                    .thenRequest(1)
+                    .consumeNextWith(event -> assertEquals("3", event.getEventId()))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void shouldDisconnectSlowSubscriber_whenBufferOverflows() {
+        ProductEventBus eventBus = eventBus(OverflowPolicy.DISCONNECT);
+
+        StepVerifier.create(eventBus.events(), 0)
+                    .then(() -> publish(eventBus, 3))
+                    .thenRequest(3)
+                    .expectNextCount(2)
+                    .expectErrorMatches(Exceptions::isOverflow)
+                    .verify();
+    }
+
+    @Test
+    void shouldReportActiveSubscribersAndDroppedEvents() {
+        ProductEventBus eventBus = eventBus(OverflowPolicy.DROP_OLDEST);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        eventBus.bindTo(registry);
+
+        // a subscriber that never requests anything
+        BaseSubscriber<ProductEvent> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+            }
+        };
+        eventBus.events().subscribe(subscriber);
+        publish(eventBus, 5);
+
+        assertEquals(1, registry.get("product.events.subscribers").gauge().value());
+        assertEquals(5, registry.get("product.events.published").functionCounter().count());
+        assertEquals(3, registry.get("product.events.dropped").functionCounter().count());
+
+        subscriber.dispose();
+        assertEquals(0, registry.get("product.events.subscribers").gauge().value());
+    }
+
+    @Test
+    void shouldResumeAfterLastEventId_whileEventsAreReplayed() {
+        ProductEventBus eventBus = eventBus(OverflowPolicy.DROP_OLDEST);
+        publish(eventBus, 4);
+
+        StepVerifier.create(eventBus.events("3"))
+                    .consumeNextWith(event -> assertEquals("4", event.getEventId()))
+                    .then(() -> publish(eventBus, 1))
+                    .consumeNextWith(event -> assertEquals("5", event.getEventId()))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void shouldSendResetThenOnlyNewEvents_whenLastEventIdIsNoLongerReplayed() {
+        for (String lastEventId : List.of("1", "6", "unknown")) {
+            ProductEventBus eventBus = eventBus(OverflowPolicy.DROP_OLDEST);
+            publish(eventBus, 5);
+
+            StepVerifier.create(eventBus.events(lastEventId))
+                        .expectNext(new ProductEvent("5", ProductEventType.RESET, null))
+                        .then(() -> publish(eventBus, 1))
+                        .consumeNextWith(event -> assertEquals(ProductEventType.UPDATED, event.getEventType()))
+                        .thenCancel()
+                        .verify();
+        }
+    }
+
+    @Test
+    void shouldSendOnlyLatestEventOfEachProduct_withinCoalesceWindow() {
+        ProductEventProperties properties = new ProductEventProperties();
+        properties.setCoalesceWindow(Duration.ofMillis(100));
+        ProductEventBus eventBus = new ProductEventBus(properties);
+        Product other = new Product("2", "Flat White", 3.49);
+
+        StepVerifier.withVirtualTime(() -> eventBus.events("0"))
+                    .then(() -> {
+                        eventBus.publish(ProductEventType.CREATED, product);
+                        eventBus.publish(ProductEventType.CREATED, other);
+                        eventBus.publish(ProductEventType.UPDATED, product);
+                    })
+                    .thenAwait(Duration.ofMillis(100))
+                    .expectNext(new ProductEvent("2", ProductEventType.CREATED, other))
+                    .expectNext(new ProductEvent("3", ProductEventType.UPDATED, product))
+                    .then(() -> eventBus.publish(ProductEventType.DELETED, other))
+                    .thenAwait(Duration.ofMillis(100))
+                    .expectNext(new ProductEvent("4", ProductEventType.DELETED, other))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void shouldSendServerSentEventsWithIds_andHeartbeats() {
+        ProductEventProperties properties = new ProductEventProperties();
+        properties.setHeartbeatInterval(Duration.ofSeconds(15));
+        ProductEventBus eventBus = new ProductEventBus(properties);
+
+        StepVerifier.withVirtualTime(() -> eventBus.serverSentEvents(null))
+                    .then(() -> publish(eventBus, 1))
+                    .consumeNextWith(event -> assertEquals("1", event.id()))
+                    .expectNoEvent(Duration.ofSeconds(29))
+                    .thenAwait(Duration.ofSeconds(1))
+                    .consumeNextWith(event -> {
+                        assertEquals("heartbeat", event.comment());
+                        assertNull(event.data());
+                    })
+                    .thenAwait(Duration.ofSeconds(15))
+                    .consumeNextWith(event -> assertEquals("heartbeat", event.comment()))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void shouldSendHeartbeatsOnlyOnIdleStreams_fromOneSharedTimer() {
+        ProductEventProperties properties = new ProductEventProperties();
+        properties.setHeartbeatInterval(Duration.ofSeconds(15));
+        ProductEventBus eventBus = new ProductEventBus(properties);
+
+        StepVerifier.withVirtualTime(() -> Flux.merge(eventBus.serverSentEvents(null), eventBus.serverSentEvents(null)))
+                    .expectSubscription()
+                    .then(() -> assertEquals(1, VirtualTimeScheduler.get().getScheduledTaskCount()))
+                    .thenAwait(Duration.ofSeconds(10))
+                    .then(() -> publish(eventBus, 1))
+                    .expectNextCount(2)
+                    .thenAwait(Duration.ofSeconds(10))
+                    .then(() -> publish(eventBus, 1))
+                    .expectNextCount(2)
+                    .expectNoEvent(Duration.ofSeconds(20))
+                    .thenAwait(Duration.ofSeconds(10))
+                    .expectNextMatches(event -> "heartbeat".equals(event.comment()))
+                    .expectNextMatches(event -> "heartbeat".equals(event.comment()))
+                    .thenCancel()
+                    .verify();
+    }
+
+    private ProductEventBus eventBus(OverflowPolicy overflowPolicy) {
+        ProductEventProperties properties = new ProductEventProperties();
+        properties.setReplaySize(2);
+        properties.setSubscriberBufferSize(2);
+        properties.setOverflowPolicy(overflowPolicy);
+        return new ProductEventBus(properties);
+    }
+
+    private void publish(ProductEventBus eventBus, int count) {
+        for (int i = 0; i < count; i++) {
+            eventBus.publish(ProductEventType.UPDATED, product);
+        }
+    }
+
+}
@@ -1,14 +1,35 @@
 package com.ashimjk.reactiveapi.product.reactive;
 
+import com.ashimjk.reactiveapi.BlockHoundExtension;
+import com.ashimjk.reactiveapi.product.cache.ProductCache;
+import com.ashimjk.reactiveapi.product.cache.ProductResponseCache;
+import com.ashimjk.reactiveapi.product.codec.ProductCodecConfiguration;
+import com.ashimjk.reactiveapi.product.event.ProductEventBus;
 import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductBatch;
 import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.model.ProductLookup;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsMode;
 import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.search.ProductSearchIndex;
+import com.ashimjk.reactiveapi.product.service.ProductService;
+import com.ashimjk.reactiveapi.product.stats.ProductPriceStats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.FluxExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -19,13 +40,34 @@ import reactor.test.StepVerifier;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static com.ashimjk.reactiveapi.product.codec.ProductMediaTypes.APPLICATION_SMILE;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 
+@ExtendWith(BlockHoundExtension.class)
 @WebFluxTest({EndpointRoutes.class, ProductHandler.class})
+@Import({
+        ProductService.class,
+        ProductCache.class,
+        ProductResponseCache.class,
+        ProductEventBus.class,
+        ProductSearchIndex.class,
+        ProductPriceStats.class,
+        ProductCodecConfiguration.class
+})
 class EndpointRoutesTest {
 
     @Autowired private WebTestClient client;
+    @Autowired private ProductEventBus eventBus;
+    @Autowired private ProductSearchIndex searchIndex;
     @MockBean private ProductRepository repository;
     @MockBean private CommandLineRunner commandLineRunner;
 
@@ -38,7 +80,7 @@ class EndpointRoutesTest {
 
     @Test
     void shouldGetAllProducts() {
-        when(repository.findAll()).thenReturn(Flux.fromIterable(this.expectedList));
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.fromIterable(this.expectedList));
 
         client.get()
               .uri("/routes/products/")
@@ -49,6 +91,135 @@ class EndpointRoutesTest {
               .isEqualTo(expectedList);
     }
 
+    @Test
+    void shouldGetAllProductsAsCbor() {
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.fromIterable(this.expectedList));
+
+        client.get()
+              .uri("/routes/products")
+              .accept(APPLICATION_CBOR)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().contentType(APPLICATION_CBOR)
+              .expectBodyList(Product.class)
+              .isEqualTo(expectedList);
+    }
+
+    @Test
+    void shouldTagEachRepresentationOfAProductSeparately() {
+        when(repository.findById("7")).thenReturn(Mono.just(new Product("7", "Big Latte", 2.99, 3L, null)));
+
+        client.get()
+              .uri("/routes/products/{id}", "7")
+              .accept(APPLICATION_CBOR)
+              .header(HttpHeaders.IF_NONE_MATCH, "\"3-json\"")
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3-cbor\"")
+              .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        client.get()
+              .uri("/routes/products/{id}", "7")
+              .accept(APPLICATION_SMILE)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3-smile\"");
+    }
+
+    @Test
+    void shouldCreateProductFromSmile() {
+        Product product = new Product(null, "Flat White", 3.49);
+        when(repository.save(any(Product.class)))
+                .thenAnswer(invocation -> Mono.just(new Product("6", product.getName(), product.getPrice())));
+
+        client.post()
+              .uri("/routes/products")
+              .contentType(APPLICATION_SMILE)
+              .accept(APPLICATION_SMILE)
+              .bodyValue(product)
+              .exchange()
+              .expectStatus().isCreated()
+              .expectHeader().contentType(APPLICATION_SMILE)
+              .expectBody(Product.class)
+              .isEqualTo(new Product("6", "Flat White", 3.49));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void shouldStreamProductsAfterCursorAsStreamJson() {
+        when(repository.findByIdGreaterThan(eq("1"), any(Sort.class))).thenReturn(Flux.fromIterable(this.expectedList));
+
+        client.get()
+              .uri("/routes/products?after=1")
+              .accept(MediaType.APPLICATION_STREAM_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_STREAM_JSON)
+              .expectBodyList(Product.class)
+              .isEqualTo(expectedList);
+    }
+
+    @Test
+    void shouldLinkToNextPage_whenMoreProductsThanLimit() {
+        List<Product> products = List.of(new Product("1", "Big Latte", 2.99), new Product("2", "Big Decaf", 2.49));
+        when(repository.findAllBy(PageRequest.of(0, 2, Sort.by("id")))).thenReturn(Flux.fromIterable(products));
+
+        client.get()
+              .uri("/routes/products?limit=1")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals(HttpHeaders.LINK, "</routes/products?after=1&limit=1>; rel=\"next\"")
+              .expectBodyList(Product.class)
+              .isEqualTo(products.subList(0, 1));
+    }
+
+    @Test
+    void shouldGetProductsAfterCursor() {
+        when(repository.findByIdGreaterThan(eq("1"), any(Pageable.class))).thenReturn(Flux.fromIterable(this.expectedList));
+
+        client.get()
+              .uri("/routes/products?after=1")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().doesNotExist(HttpHeaders.LINK)
+              .expectBodyList(Product.class)
+              .isEqualTo(expectedList);
+    }
+
+    @Test
+    void shouldFilterProductsByExactName() {
+        ProductFilter filter = ProductFilter.of("Big Latte", null, null, null, null);
+        when(repository.findByFilter(filter, null, 101)).thenReturn(Flux.fromIterable(this.expectedList));
+
+        client.get()
+              .uri("/routes/products?name={name}", "Big Latte")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectBodyList(Product.class)
+              .isEqualTo(expectedList);
+    }
+
+    @Test
+    void shouldRejectUnknownSortProperty() {
+        client.get()
+              .uri("/routes/products?sort=version")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldRejectCursor_whenNotSortedById() {
+        client.get()
+              .uri("/routes/products?sort=price&after=1")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isBadRequest();
+    }
+
     @Test
     void shouldGetProductById() {
         Product expectedProduct = this.expectedList.get(0);
@@ -63,6 +234,58 @@ class EndpointRoutesTest {
               .isEqualTo(expectedProduct);
     }
 
+    @Test
+    void shouldReturnNotModified_whenProductETagMatches() {
+        when(repository.findById("7")).thenReturn(Mono.just(new Product("7", "Big Latte", 2.99, 3L, null)));
+
+        client.get()
+              .uri("/routes/products/{id}", "7")
+              .accept(APPLICATION_JSON)
+              .header(HttpHeaders.IF_NONE_MATCH, "\"3-json\"")
+              .exchange()
+              .expectStatus().isNotModified()
+              .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3-json\"")
+              .expectBody().isEmpty();
+    }
+
+    @Test
+    void shouldReturnPreconditionFailed_whenIfMatchVersionIsStale() {
+        Product product = new Product(null, "Big Latte", 3.49);
+        when(repository.findAndUpdate("1", product, 2L)).thenReturn(Mono.empty());
+        when(repository.existsById("1")).thenReturn(Mono.just(true));
+
+        client.put()
+              .uri("/routes/products/{id}", "1")
+              .contentType(APPLICATION_JSON)
+              .header(HttpHeaders.IF_MATCH, "\"2\"")
+              .bodyValue(product)
+              .exchange()
+              .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void shouldInsertNdjsonProductsInBatches() {
+        when(repository.insert(anyList())).thenAnswer(invocation -> {
+            List<Product> batch = invocation.getArgument(0);
+            return Flux.fromIterable(batch)
+                       .index((index, product) -> new Product(String.valueOf(index + 1), product.getName(), product.getPrice()));
+        });
+
+        String body = "{\"name\":\"Big Latte\",\"price\":2.99}\n"
+                + "{\"name\":\"Big Decaf\",\"price\":2.49}\n"
+                + "{\"name\":\"Green Tea\",\"price\":1.99}\n";
+
+        client.post()
+              .uri("/routes/products/bulk")
+              .contentType(APPLICATION_NDJSON)
+              .bodyValue(body)
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().contentTypeCompatibleWith(APPLICATION_NDJSON)
+              .expectBodyList(ProductBatch.class)
+              .isEqualTo(List.of(new ProductBatch(0, 3, "1", "3")));
+    }
+
     @Test
     void shouldReturnNotFoundStatus_forGetProductById() {
         String id = "aaa";
@@ -76,7 +299,8 @@ class EndpointRoutesTest {
 
     @Test
     void shouldGetProductEvents() {
-        ProductEvent expectedEvent = new ProductEvent("0", "Product Event");
+        Product product = new Product("42", "Flat White", 3.49);
+        eventBus.publish(ProductEventType.DELETED, product);
 
         FluxExchangeResult<ProductEvent> result =
                 client.get()
@@ -87,11 +311,76 @@ class EndpointRoutesTest {
                       .returnResult(ProductEvent.class);
 
         StepVerifier.create(result.getResponseBody())
-                    .expectNext(expectedEvent)
-                    .expectNextCount(2)
-                    .consumeNextWith(event -> assertEquals("3", event.getEventId()))
+                    .thenConsumeWhile(event -> event.getEventType() != ProductEventType.DELETED)
+                    .consumeNextWith(event -> assertEquals(product, event.getProduct()))
                     .thenCancel()
                     .verify();
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldSearchProductsByName_toleratingATypo() {
+        Product cortado = new Product("8", "Iced Cortado", 3.29);
+        searchIndex.index(cortado);
+        searchIndex.index(new Product("9", "Iced Tea", 1.99));
+
+        client.get()
+              .uri("/routes/products/search?q=cortdo&limit=5")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectBodyList(Product.class)
+              .isEqualTo(List.of(cortado));
+    }
+
+    @Test
+    void shouldReturnBadRequest_forSearchWithoutQuery() {
+        client.get()
+              .uri("/routes/products/search")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldGetAggregatedStats_fromTheRepository() {
+        ProductStats aggregate = ProductStats.ofSorted(
+                ProductStatsMode.AGGREGATE, new double[]{1.99, 2.99, 3.49}, List.of(0.5));
+        when(repository.aggregatePriceStats(anyList())).thenReturn(Mono.just(aggregate));
+
+        client.get()
+              .uri("/routes/products/stats?mode=aggregate")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody(ProductStats.class)
+              .isEqualTo(aggregate);
+    }
+
+    @Test
+    void shouldReturnBadRequest_forUnknownStatsMode() {
+        client.get()
+              .uri("/routes/products/stats?mode=sampled")
+              .accept(APPLICATION_JSON)
+              .exchange()
+              .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldGetProductsById_inOneQuery() {
+        Product latte = new Product("1", "Big Latte", 2.99);
+        when(repository.findAllById(anyIterable())).thenReturn(Flux.just(latte));
+
+        client.post()
+              .uri("/routes/products/_batch")
+              .contentType(APPLICATION_JSON)
+              .accept(APPLICATION_JSON)
+              .bodyValue(List.of("missing", "1"))
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody(ProductLookup.class)
+              .isEqualTo(new ProductLookup(List.of(latte), List.of("missing")));
+
+        verify(repository, times(1)).findAllById(anyIterable());
+    }
+
+}
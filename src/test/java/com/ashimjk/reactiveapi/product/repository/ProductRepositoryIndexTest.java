@@ -0,0 +1,96 @@
+package com.ashimjk.reactiveapi.product.repository;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Explains the filter queries against the declared indexes and checks that none of them scans the collection.
+ */
+@DataMongoTest
+class ProductRepositoryIndexTest {
+
+    @Autowired private ReactiveMongoTemplate template;
+    @Autowired private MongoMappingContext mappingContext;
+    @MockBean private CommandLineRunner commandLineRunner;
+
+    @BeforeEach
+    void setup() {
+        // index creation on startup is asynchronous, so make sure the declared indexes exist before explaining
+        ReactiveIndexOperations indexOperations = template.indexOps(Product.class);
+        Flux.fromIterable(IndexResolver.create(mappingContext).resolveIndexFor(Product.class))
+            .concatMap(indexOperations::ensureIndex)
+            .blockLast();
+
+        template.insertAll(List.of(
+                new Product(null, "Big Latte", 2.99),
+                new Product(null, "Big Decaf", 2.49),
+                new Product(null, "Green Tea", 1.99)
+        )).blockLast();
+    }
+
+    @Test
+    void shouldUseIndex_forNamePrefix() {
+        assertIndexScan(ProductFilter.of(null, "Big", null, null, null));
+    }
+
+    @Test
+    void shouldUseIndex_forExactName() {
+        assertIndexScan(ProductFilter.of("Big Latte", null, null, null, null));
+    }
+
+    @Test
+    void shouldUseIndex_forPriceRangeSortedByPrice() {
+        assertIndexScan(ProductFilter.of(null, null, 2.0, 3.0, "price,desc"));
+    }
+
+    @Test
+    void shouldUseIndex_forNamePrefixAndPriceRange() {
+        assertIndexScan(ProductFilter.of(null, "Big", 2.0, 3.0, "name"));
+    }
+
+    private void assertIndexScan(ProductFilter filter) {
+        Query query = ProductRepositoryCustomImpl.filterQuery(filter, null, 10);
+        Document find = new Document("find", template.getCollectionName(Product.class))
+                .append("filter", query.getQueryObject())
+                .append("sort", query.getSortObject())
+                .append("limit", 10);
+        Document explain = template.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"))
+                                   .block();
+
+        List<String> stages = new ArrayList<>();
+        collectStages(explain.get("queryPlanner", Document.class).get("winningPlan", Document.class), stages);
+
+        assertTrue(stages.contains("IXSCAN"), () -> filter + " planned as " + stages);
+        assertFalse(stages.contains("COLLSCAN"), () -> filter + " planned as " + stages);
+    }
+
+    private static void collectStages(Document plan, List<String> stages) {
+        stages.add(plan.getString("stage"));
+        if (plan.containsKey("inputStage")) {
+            collectStages(plan.get("inputStage", Document.class), stages);
+        }
+        if (plan.containsKey("inputStages")) {
+            plan.getList("inputStages", Document.class).forEach(input -> collectStages(input, stages));
+        }
+    }
+
+}
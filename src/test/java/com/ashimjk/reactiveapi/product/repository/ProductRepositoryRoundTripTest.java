@@ -0,0 +1,185 @@
+package com.ashimjk.reactiveapi.product.repository;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsMode;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@Import(ProductRepositoryRoundTripTest.CommandRecorderConfiguration.class)
+class ProductRepositoryRoundTripTest {
+
+    @Autowired private WebTestClient client;
+    @Autowired private ProductRepository repository;
+    @Autowired private CommandRecorder commandRecorder;
+
+    private Product product;
+
+    @BeforeEach
+    void setup() {
+        product = repository.save(new Product(null, "Flat White", 3.49)).block();
+        commandRecorder.clear();
+    }
+
+    @Test
+    void shouldUpdateProductInOneCommand_forController() {
+        client.put()
+              .uri("/controller/products/{id}", product.getId())
+              .contentType(APPLICATION_JSON)
+              .bodyValue(new Product(null, "Flat White", 3.99))
+              .exchange()
+              .expectStatus().isOk();
+
+        assertEquals(List.of("findAndModify"), commandRecorder.commandsFor(product.getId()));
+    }
+
+    @Test
+    void shouldUpdateProductInOneCommand_forRoutes() {
+        client.put()
+              .uri("/routes/products/{id}", product.getId())
+              .contentType(APPLICATION_JSON)
+              .bodyValue(new Product(null, "Flat White", 3.99))
+              .exchange()
+              .expectStatus().isOk();
+
+        assertEquals(List.of("findAndModify"), commandRecorder.commandsFor(product.getId()));
+    }
+
+    @Test
+    void shouldDeleteProductInOneCommand_forController() {
+        client.delete()
+              .uri("/controller/products/{id}", product.getId())
+              .exchange()
+              .expectStatus().isOk();
+
+        assertEquals(List.of("findAndModify"), commandRecorder.commandsFor(product.getId()));
+    }
+
+    @Test
+    void shouldDeleteProductInOneCommand_forRoutes() {
+        client.delete()
+              .uri("/routes/products/{id}", product.getId())
+              .exchange()
+              .expectStatus().isOk();
+
+        assertEquals(List.of("findAndModify"), commandRecorder.commandsFor(product.getId()));
+    }
+
+    @Test
+    void shouldReturnNotFoundInOneCommand_forMissingProduct() {
+        String missingId = "000000000000000000000000";
+
+        client.delete()
+              .uri("/routes/products/{id}", missingId)
+              .exchange()
+              .expectStatus().isNotFound();
+
+        assertEquals(List.of("findAndModify"), commandRecorder.commandsFor(missingId));
+    }
+
+    @Test
+    void shouldUpsertProductInOneCommand_whetherItExistsOrNot() {
+        String missingId = "000000000000000000000001";
+        repository.deleteById(missingId).block();
+        commandRecorder.clear();
+
+        StepVerifier.create(repository.findAndUpsert(missingId, new Product(null, "Mocha", 3.79)))
+                    .verifyComplete();
+        StepVerifier.create(repository.findAndUpsert(product.getId(), new Product(null, "Flat White", 3.99)))
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+        assertEquals(List.of("findAndModify"), commandRecorder.commandsFor(missingId));
+        assertEquals(List.of("findAndModify"), commandRecorder.commandsFor(product.getId()));
+        assertEquals(List.of(1L, 1L), List.of(repository.findById(missingId).block().getVersion(),
+                                             repository.findById(product.getId()).block().getVersion()));
+    }
+
+    @Test
+    void shouldAggregatePriceStats_withOneGroupAndOneIndexLookupPerPercentile() {
+        ProductStats expected = ProductStats.ofSorted(
+                ProductStatsMode.AGGREGATE,
+                repository.findAll().map(Product::getPrice).sort().collectList().block()
+                          .stream().mapToDouble(Double::doubleValue).toArray(),
+                List.of(0.5, 0.9, 0.99)
+        );
+        commandRecorder.clear();
+
+        StepVerifier.create(repository.aggregatePriceStats(List.of(0.5, 0.9, 0.99)))
+                    .assertNext(stats -> {
+                        assertEquals(expected.getCount(), stats.getCount());
+                        assertEquals(expected.getMin(), stats.getMin());
+                        assertEquals(expected.getMax(), stats.getMax());
+                        assertEquals(expected.getAvg(), stats.getAvg(), 1e-9);
+                        assertEquals(expected.getPercentiles(), stats.getPercentiles());
+                    })
+                    .verifyComplete();
+
+        assertEquals(List.of("aggregate", "find", "find", "find"), commandRecorder.commandNames());
+    }
+
+    @TestConfiguration
+    static class CommandRecorderConfiguration {
+
+        @Bean
+        CommandRecorder commandRecorder() {
+            return new CommandRecorder();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandRecorderCustomizer(CommandRecorder commandRecorder) {
+            return builder -> builder.addCommandListener(commandRecorder);
+        }
+
+    }
+
+    static class CommandRecorder implements CommandListener {
+
+        private final List<CommandStartedEvent> commands = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            commands.add(event);
+        }
+
+        void clear() {
+            commands.clear();
+        }
+
+        List<String> commandNames() {
+            return commands.stream().map(CommandStartedEvent::getCommandName).collect(Collectors.toList());
+        }
+
+        /**
+         * Names of the recorded commands that mention the given id, in the order they were issued.
+         */
+        List<String> commandsFor(String id) {
+            return commands.stream()
+                           .filter(event -> event.getCommand().toJson().contains(id))
+                           .map(CommandStartedEvent::getCommandName)
+                           .collect(Collectors.toList());
+        }
+
+    }
+
+}
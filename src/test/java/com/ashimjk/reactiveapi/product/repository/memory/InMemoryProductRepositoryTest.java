@@ -0,0 +1,110 @@
+package com.ashimjk.reactiveapi.product.repository.memory;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryProductRepositoryTest {
+
+    private final InMemoryProductRepository repository = new InMemoryProductRepository(new InMemoryProductProperties());
+
+    @Test
+    void shouldFilterByNamePrefixAndPrice_inTheRequestedOrder() {
+        insertSamples();
+
+        ProductFilter filter = ProductFilter.of(null, "Big", null, 2.8, "price,desc");
+
+        StepVerifier.create(repository.findByFilter(filter, null, 0).map(Product::getName))
+                    .expectNext("Big Decaf", "Big Mocha")
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldPageById_afterTheCursor() {
+        List<Product> products = insertSamples();
+
+        StepVerifier.create(repository.findByIdGreaterThan(products.get(0).getId(), PageRequest.of(0, 2, Sort.by("id")))
+                                      .map(Product::getName))
+                    .expectNext("Big Decaf", "Green Tea")
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldUpdateOnlyAtTheExpectedVersion() {
+        Product product = insertSamples().get(0);
+
+        StepVerifier.create(repository.findAndUpdate(product.getId(), new Product(null, "Big Latte", 3.49), 1L))
+                    .verifyComplete();
+
+        StepVerifier.create(repository.findAndUpdate(product.getId(), new Product(null, "Big Latte", 3.49), 0L))
+                    .assertNext(updated -> assertEquals(1L, updated.getVersion()))
+                    .verifyComplete();
+
+        StepVerifier.create(repository.findByFilter(ProductFilter.of(null, null, 3.0, null, null), null, 0)
+                                      .map(Product::getName))
+                    .expectNext("Big Latte")
+                    .verifyComplete();
+
+        StepVerifier.create(repository.save(product))
+                    .verifyError(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void shouldUpsert_creatingMissingProductsAndUpdatingExistingOnes() {
+        Product product = new Product(null, "Flat White", 3.49, null, Instant.now());
+
+        StepVerifier.create(repository.findAndUpsert("1", product))
+                    .verifyComplete();
+
+        StepVerifier.create(repository.findAndUpsert("1", new Product(null, "Flat White", 3.99, null, Instant.now())))
+                    .assertNext(previous -> assertEquals(new Product("1", "Flat White", 3.49, 1L,
+                                                                     product.getLastModified()), previous))
+                    .verifyComplete();
+
+        StepVerifier.create(repository.findById("1").map(Product::getVersion))
+                    .expectNext(2L)
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldReloadProducts_fromTheSnapshot(@TempDir Path directory) throws Exception {
+        InMemoryProductProperties properties = new InMemoryProductProperties();
+        properties.setSnapshotFile(directory.resolve("products.snapshot"));
+
+        InMemoryProductRepository first = new InMemoryProductRepository(properties);
+        first.loadSnapshot();
+        List<Product> products = first.insert(List.of(new Product(null, "Big Latte", 2.99), new Product(null, "Tea", null)))
+                                      .collectList()
+                                      .block();
+        first.stopSnapshots();
+
+        InMemoryProductRepository second = new InMemoryProductRepository(properties);
+        second.loadSnapshot();
+
+        StepVerifier.create(second.findAll())
+                    .expectNextSequence(products)
+                    .verifyComplete();
+        second.stopSnapshots();
+    }
+
+    private List<Product> insertSamples() {
+        return repository.insert(List.of(
+                new Product(null, "Big Latte", 2.99),
+                new Product(null, "Big Decaf", 2.49),
+                new Product(null, "Green Tea", 1.99),
+                new Product(null, "Big Mocha", 2.49)
+        )).collectList().block();
+    }
+
+}
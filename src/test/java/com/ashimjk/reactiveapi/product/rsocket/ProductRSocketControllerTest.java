@@ -0,0 +1,200 @@
+package com.ashimjk.reactiveapi.product.rsocket;
+
+import com.ashimjk.reactiveapi.product.event.ProductEventBus;
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductEvent;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
+import com.ashimjk.reactiveapi.product.model.ProductQuery;
+import com.ashimjk.reactiveapi.product.model.ProductUpsert;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.service.ProductService;
+import com.ashimjk.reactiveapi.product.service.ProductServiceFixture;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.web.util.pattern.PathPatternRouteMatcher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON;
+
+@ExtendWith(MockitoExtension.class)
+class ProductRSocketControllerTest {
+
+    @Mock private ProductRepository repository;
+
+    private ProductEventBus eventBus;
+    private CloseableChannel server;
+    private RSocketRequester requester;
+
+    @BeforeEach
+    void setup() {
+        ProductServiceFixture fixture = ProductServiceFixture.of(repository);
+        eventBus = fixture.eventBus();
+        ProductService productService = fixture.build();
+
+        RSocketStrategies strategies = RSocketStrategies.builder()
+                                                        .encoder(new Jackson2JsonEncoder(fixture.objectMapper()))
+                                                        .decoder(new Jackson2JsonDecoder(fixture.objectMapper()))
+                                                        .routeMatcher(new PathPatternRouteMatcher())
+                                                        .build();
+        RSocketMessageHandler handler = new RSocketMessageHandler();
+        handler.setRSocketStrategies(strategies);
+        handler.setHandlers(List.of(new ProductRSocketController(productService, strategies)));
+        handler.afterPropertiesSet();
+
+        server = RSocketServer.create(handler.responder())
+                              .bind(TcpServerTransport.create("localhost", 0))
+                              .block();
+        requester = RSocketRequester.builder()
+                                    .rsocketStrategies(strategies)
+                                    .dataMimeType(APPLICATION_JSON)
+                                    .tcp("localhost", server.address().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        requester.dispose();
+        server.dispose();
+    }
+
+    @Test
+    void shouldGetProductById() {
+        Product product = new Product("1", "Big Latte", 2.99);
+        when(repository.findById("1")).thenReturn(Mono.just(product));
+
+        StepVerifier.create(requester.route("products.{id}", "1").retrieveMono(Product.class))
+                    .expectNext(product)
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamProducts_onlyAsFastAsTheRequesterAsks() {
+        List<Product> products = IntStream.range(0, 1000)
+                                          .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.99))
+                                          .collect(Collectors.toList());
+        AtomicLong requested = new AtomicLong();
+        when(repository.findAll(any(Sort.class)))
+                .thenReturn(Flux.fromIterable(products).doOnRequest(requested::addAndGet));
+
+        StepVerifier.create(requester.route("products").retrieveFlux(Product.class), 5)
+                    .expectNextSequence(products.subList(0, 5))
+                    .thenCancel()
+                    .verify();
+
+        assertTrue(requested.get() < products.size(), "requested " + requested.get());
+    }
+
+    @Test
+    void shouldStreamProductsMatchingQuery() {
+        Product product = new Product("7", "Flat White", 3.49);
+        when(repository.findByFilter(any(), isNull(), eq(10))).thenReturn(Flux.just(product));
+
+        ProductQuery query = new ProductQuery(null, "Flat", 3.0, null, null, null, 10);
+        StepVerifier.create(requester.route("products").data(query).retrieveFlux(Product.class))
+                    .expectNext(product)
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamProductEvents_afterLastEventId() {
+        Product product = new Product("1", "Big Latte", 2.99);
+        eventBus.publish(ProductEventType.CREATED, product);
+        eventBus.publish(ProductEventType.UPDATED, product);
+        eventBus.publish(ProductEventType.DELETED, product);
+
+        StepVerifier.create(requester.route("products.events.{lastEventId}", "2").retrieveFlux(ProductEvent.class))
+                    .expectNext(new ProductEvent("3", ProductEventType.DELETED, product))
+                    .thenCancel()
+                    .verify();
+
+        StepVerifier.create(requester.route("products.events").retrieveFlux(ProductEvent.class))
+                    .expectNextCount(3)
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void shouldUpsertProductsSentOverChannel_inOrder() {
+        Product created = new Product("3", "Flat White", 3.49, 0L, null);
+        when(repository.findAndUpsert(eq("1"), any(Product.class)))
+                .thenReturn(Mono.just(new Product("1", "Big Latte", 2.99, 1L, null)));
+        when(repository.findAndUpsert(eq("2"), any(Product.class))).thenReturn(Mono.empty());
+        when(repository.save(any(Product.class))).thenReturn(Mono.just(created));
+
+        Flux<Product> products = Flux.just(
+                new Product("1", "Big Latte", 3.49),
+                new Product("2", "Small Tea", 1.99),
+                new Product(null, "Flat White", 3.49)
+        );
+        StepVerifier.create(requester.route("products.upsert").data(products).retrieveFlux(ProductUpsert.class))
+                    .assertNext(upsert -> assertUpserted(upsert, 0, "1", 3.49, 2L))
+                    .assertNext(upsert -> assertUpserted(upsert, 1, "2", 1.99, 1L))
+                    .expectNext(ProductUpsert.upserted(2, created))
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldAnswerProductsThatCantBeReadOrStored_withTheirError_andCarryOn() {
+        when(repository.findAndUpsert(eq("1"), any(Product.class)))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("Timed out")));
+        when(repository.findAndUpsert(eq("2"), any(Product.class))).thenReturn(Mono.empty());
+
+        Flux<String> documents = Flux.just(
+                "{\"id\":\"1\",\"name\":\"Big Latte\",\"price\":3.49}",
+                "{\"id\":\"3\",\"name\":",
+                "{\"id\":\"4\",\"price\":\"cheap\"}",
+                "{\"id\":\"2\",\"name\":\"Small Tea\",\"price\":1.99}"
+        );
+        StepVerifier.create(requester.route("products.upsert").data(documents).retrieveFlux(ProductUpsert.class))
+                    .expectNext(ProductUpsert.failed(0, "Timed out"))
+                    .assertNext(upsert -> assertFailed(upsert, 1))
+                    .assertNext(upsert -> assertFailed(upsert, 2))
+                    .assertNext(upsert -> assertUpserted(upsert, 3, "2", 1.99, 1L))
+                    .verifyComplete();
+    }
+
+    private static void assertFailed(ProductUpsert upsert, long index) {
+        assertEquals(index, upsert.getIndex());
+        assertNull(upsert.getProduct());
+        assertNotNull(upsert.getError());
+    }
+
+    private static void assertUpserted(ProductUpsert upsert, long index, String id, double price, long version) {
+        assertEquals(index, upsert.getIndex());
+        assertNull(upsert.getError());
+        Product product = upsert.getProduct();
+        assertEquals(id, product.getId());
+        assertEquals(price, product.getPrice());
+        assertEquals(version, product.getVersion());
+        assertNotNull(product.getLastModified());
+    }
+
+}
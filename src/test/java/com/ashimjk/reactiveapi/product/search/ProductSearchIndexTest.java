@@ -0,0 +1,88 @@
+package com.ashimjk.reactiveapi.product.search;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex(new ProductSearchProperties());
+
+    @Test
+    void shouldRankExactMatchesAbovePrefixAndTypoMatches() {
+        index.index(new Product("1", "Big Latte", 2.99));
+        index.index(new Product("2", "Big Lattes Box", 9.99));
+        index.index(new Product("3", "Big Lattle", 2.49));
+        index.index(new Product("4", "Green Tea", 1.99));
+
+        assertEquals(List.of("1", "2", "3"), ids(index.search("latte", 10)));
+        assertEquals(List.of("1", "3", "2"), ids(index.search("big lat", 10)));
+    }
+
+    @Test
+    void shouldIgnoreCaseAndAccents() {
+        index.index(new Product("1", "Crème Brûlée Latte", 4.99));
+
+        assertEquals(List.of("1"), ids(index.search("CREME brulee", 10)));
+    }
+
+    @Test
+    void shouldFollowUpdatesAndDeletes() {
+        index.index(new Product("1", "Big Latte", 2.99));
+        index.index(new Product("1", "Big Mocha", 2.99));
+
+        assertTrue(index.search("latte", 10).isEmpty());
+        assertEquals(List.of("1"), ids(index.search("mocha", 10)));
+
+        index.remove("1");
+
+        assertTrue(index.search("mocha", 10).isEmpty());
+        assertEquals(0, index.estimatedBytes());
+    }
+
+    @Test
+    void shouldLimitResults() {
+        for (int i = 0; i < 150; i++) {
+            index.index(new Product(String.valueOf(i), "Green Tea " + i, 1.99));
+        }
+
+        assertEquals(5, index.search("tea", 5).size());
+        assertEquals(20, index.search("tea", null).size());
+        assertEquals(100, index.search("tea", 1000).size());
+    }
+
+    @Test
+    void shouldLookForTypos_onlyAmongWordsWithTheSameFirstLetterAndASimilarLength() {
+        index.index(new Product("1", "Big Lattes", 2.99));
+        index.index(new Product("2", "Lemonade Lime", 1.99));
+        index.index(new Product("3", "Late Latte", 1.49));
+        index.index(new Product("4", "Matte 1000", 1.49));
+
+        assertEquals(Set.of("late", "latte", "lattes", "lime"), Set.copyOf(index.typoCandidates("latte", 1)));
+        assertEquals(List.of("1", "3"), ids(index.search("lattez", 10)));
+
+        index.remove("3");
+
+        assertEquals(Set.of("lattes", "lime"), Set.copyOf(index.typoCandidates("latte", 1)));
+        assertEquals(List.of("1"), ids(index.search("lattez", 10)));
+    }
+
+    @Test
+    void shouldToleratePrefixAndTypoDistance() {
+        assertTrue(ProductSearchIndex.withinDistance("latte", "latet", 2));
+        assertTrue(ProductSearchIndex.withinDistance("latte", "late", 1));
+        assertFalse(ProductSearchIndex.withinDistance("latte", "mocha", 2));
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).collect(Collectors.toList());
+    }
+
+}
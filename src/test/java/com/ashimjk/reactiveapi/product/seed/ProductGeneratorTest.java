@@ -0,0 +1,31 @@
+package com.ashimjk.reactiveapi.product.seed;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductGeneratorTest {
+
+    @Test
+    void shouldGenerateTheRequestedNumberOfProducts() {
+        StepVerifier.create(ProductGenerator.generate(2500).count())
+                    .expectNext(2500L)
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldGenerateTheSameProducts_forTheSameCount() {
+        List<Product> first = ProductGenerator.generate(100).collectList().block();
+        List<Product> second = ProductGenerator.generate(100).collectList().block();
+
+        assertEquals(first, second);
+        assertTrue(first.stream().allMatch(product -> product.getId() == null
+                && product.getPrice() >= 0.5 && product.getPrice() <= 20));
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.repository.memory.InMemoryProductProperties;
+import com.ashimjk.reactiveapi.product.repository.memory.InMemoryProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InsertBatcherTest {
+
+    @Test
+    void shouldWriteConcurrentInserts_inBatchesBoundedBySize() {
+        InMemoryProductRepository repository = new InMemoryProductRepository(new InMemoryProductProperties());
+        InsertBatcher batcher = new InsertBatcher(repository, product -> {}, 4, Duration.ofMillis(50));
+
+        List<Mono<Product>> inserts = IntStream.range(0, 10)
+                                               .mapToObj(i -> batcher.insert(new Product(null, "Product " + i, 1.0 + i)))
+                                               .collect(Collectors.toList());
+
+        StepVerifier.create(Flux.merge(inserts).map(Product::getId).distinct().count())
+                    .expectNext(10L)
+                    .verifyComplete();
+
+        assertEquals(3, batcher.batches());
+        assertEquals(10, batcher.batched());
+        assertEquals(10L, repository.count().block());
+    }
+
+    @Test
+    void shouldCloseABatch_onceItIsAsOldAsTheMaxDelay() {
+        InMemoryProductRepository repository = new InMemoryProductRepository(new InMemoryProductProperties());
+        InsertBatcher batcher = new InsertBatcher(repository, product -> {}, 64, Duration.ofMillis(20));
+
+        StepVerifier.create(batcher.insert(new Product(null, "Big Latte", 2.99)))
+                    .assertNext(product -> assertEquals(0L, product.getVersion()))
+                    .verifyComplete();
+
+        assertEquals(1, batcher.batches());
+    }
+
+    @Test
+    void shouldFailOnlyTheProductThatCantBeWritten_whenTheBatchFails() {
+        ProductRepository repository = mock(ProductRepository.class);
+        InsertBatcher batcher = new InsertBatcher(repository, product -> {}, 3, Duration.ofSeconds(10));
+        Product written = new Product(null, "Big Latte", 2.99);
+        Product retried = new Product(null, "Big Decaf", 2.49);
+        Product failing = new Product(null, "Green Tea", 1.99);
+
+        when(repository.insert(anyList())).thenReturn(Flux.error(new DuplicateKeyException("E11000")));
+        when(repository.findAllById(anyIterable())).thenAnswer(invocation -> Flux.just(written));
+        when(repository.insert(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0) == failing
+                ? Mono.error(new DataAccessResourceFailureException("connection reset"))
+                : Mono.just(invocation.getArgument(0)));
+
+        Flux<String> outcomes = Flux.merge(
+                batcher.insert(written).map(Product::getName),
+                batcher.insert(retried).map(Product::getName),
+                batcher.insert(failing).map(Product::getName)
+                       .onErrorReturn(DataAccessResourceFailureException.class, "failed")
+        );
+
+        StepVerifier.create(outcomes.collect(Collectors.toSet()))
+                    .expectNext(Set.of("Big Latte", "Big Decaf", "failed"))
+                    .verifyComplete();
+    }
+
+}
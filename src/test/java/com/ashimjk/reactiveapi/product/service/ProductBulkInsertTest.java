@@ -0,0 +1,78 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductBatch;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBulkInsertTest {
+
+    @Mock private ProductRepository repository;
+
+    private ProductService productService;
+
+    @BeforeEach
+    void setup() {
+        ProductBulkProperties bulk = new ProductBulkProperties();
+        bulk.setBatchSize(3);
+        bulk.setMaxDelay(Duration.ofSeconds(1));
+        productService = ProductServiceFixture.of(repository).bulk(bulk).build();
+
+        when(repository.insert(anyList())).thenAnswer(invocation -> {
+            List<Product> batch = invocation.getArgument(0);
+            return Flux.fromIterable(batch);
+        });
+    }
+
+    @Test
+    void shouldInsertFullBatches_andTheRestOnCompletion() {
+        StepVerifier.create(productService.insertAll(Flux.fromIterable(products(7))))
+                    .assertNext(batch -> assertBatch(batch, 0, 3, "0", "2"))
+                    .assertNext(batch -> assertBatch(batch, 1, 3, "3", "5"))
+                    .assertNext(batch -> assertBatch(batch, 2, 1, "6", "6"))
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldInsertPartialBatch_onceItIsAsOldAsMaxDelay_whileTheSourceStalls() {
+        StepVerifier.withVirtualTime(() -> productService.insertAll(Flux.concat(
+                            Flux.fromIterable(products(2)),
+                            Mono.never()
+                    )))
+                    .expectSubscription()
+                    .expectNoEvent(Duration.ofMillis(900))
+                    .thenAwait(Duration.ofMillis(350))
+                    .assertNext(batch -> assertBatch(batch, 0, 2, "0", "1"))
+                    .expectNoEvent(Duration.ofSeconds(5))
+                    .thenCancel()
+                    .verify();
+    }
+
+    private static void assertBatch(ProductBatch batch, long index, int inserted, String firstId, String lastId) {
+        assertEquals(new ProductBatch(index, inserted, firstId, lastId), batch);
+    }
+
+    private static List<Product> products(int count) {
+        return IntStream.range(0, count)
+                        .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.99))
+                        .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.model.ProductPage;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCoalescingTest {
+
+    @Mock private ProductRepository repository;
+
+    private final List<Product> products = List.of(new Product("1", "Big Latte", 2.99));
+
+    @Test
+    void shouldShareOnePageQuery_betweenConcurrentIdenticalRequests() {
+        ProductService productService = ProductServiceFixture.of(repository).build();
+        when(repository.findAllBy(any(Pageable.class)))
+                .thenReturn(Flux.fromIterable(products).delaySubscription(Duration.ofMillis(100)));
+
+        Mono<ProductPage> page = productService.findPage(ProductFilter.NONE, null, null);
+
+        StepVerifier.create(Flux.merge(page, page, page))
+                    .expectNextCount(3)
+                    .verifyComplete();
+
+        verify(repository, times(1)).findAllBy(any(Pageable.class));
+    }
+
+    @Test
+    void shouldShareOneLoad_betweenConcurrentMissesOfOneId() {
+        ProductService productService = ProductServiceFixture.of(repository).build();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        productService.bindTo(registry);
+        when(repository.findById("1"))
+                .thenReturn(Mono.just(products.get(0)).delaySubscription(Duration.ofMillis(100)));
+
+        Mono<Product> product = productService.findById("1");
+
+        StepVerifier.create(Flux.merge(product, product, product))
+                    .expectNextCount(3)
+                    .verifyComplete();
+
+        verify(repository, times(1)).findById("1");
+        assertEquals(2, coalescedLookups(registry));
+    }
+
+    @Test
+    void shouldNotCountCacheHitsAsCoalesced() {
+        ProductService productService = ProductServiceFixture.of(repository).build();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        productService.bindTo(registry);
+        when(repository.findById("1")).thenReturn(Mono.just(products.get(0)));
+
+        for (int i = 0; i < 3; i++) {
+            productService.findById("1").block();
+        }
+
+        assertEquals(0, coalescedLookups(registry));
+    }
+
+    @Test
+    void shouldQueryAgain_afterAWrite() {
+        ProductService productService = ProductServiceFixture.of(repository).build();
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.fromIterable(products));
+        when(repository.findAndUpdate(eq("1"), any(Product.class), isNull())).thenReturn(Mono.just(products.get(0)));
+
+        productService.findPage(ProductFilter.NONE, null, null).block();
+        productService.update("1", new Product(null, "Big Latte", 2.99), null).block();
+        productService.findPage(ProductFilter.NONE, null, null).block();
+
+        verify(repository, times(2)).findAllBy(any(Pageable.class));
+    }
+
+    @Test
+    void shouldQueryOncePerRequest_whenCoalescingIsDisabled() {
+        ProductCoalescingProperties coalescing = new ProductCoalescingProperties();
+        coalescing.setEnabled(false);
+        ProductService productService = ProductServiceFixture.of(repository).coalescing(coalescing).build();
+        when(repository.findAllBy(any(Pageable.class)))
+                .thenReturn(Flux.fromIterable(products).delaySubscription(Duration.ofMillis(100)));
+
+        Mono<ProductPage> page = productService.findPage(ProductFilter.NONE, null, null);
+
+        StepVerifier.create(Flux.merge(page, page, page))
+                    .expectNextCount(3)
+                    .verifyComplete();
+
+        verify(repository, times(3)).findAllBy(any(Pageable.class));
+    }
+
+    private static double coalescedLookups(MeterRegistry registry) {
+        return registry.get("product.coalesced").tag("operation", "findById").functionCounter().count();
+    }
+
+}
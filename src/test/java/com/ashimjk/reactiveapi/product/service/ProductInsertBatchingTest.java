@@ -0,0 +1,53 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductEventType;
+import com.ashimjk.reactiveapi.product.repository.memory.InMemoryProductProperties;
+import com.ashimjk.reactiveapi.product.repository.memory.InMemoryProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductInsertBatchingTest {
+
+    private final InMemoryProductRepository repository = new InMemoryProductRepository(new InMemoryProductProperties());
+
+    private ProductServiceFixture fixture;
+    private ProductService productService;
+
+    @BeforeEach
+    void setup() {
+        ProductInsertBatchingProperties insertBatching = new ProductInsertBatchingProperties();
+        insertBatching.setEnabled(true);
+        insertBatching.setMaxDelay(Duration.ofMillis(50));
+        fixture = ProductServiceFixture.of(repository).insertBatching(insertBatching);
+        productService = fixture.build();
+    }
+
+    @Test
+    void shouldIndexAndPublishABatchedCreate_whenItsCallerCancelledBeforeTheWrite() {
+        productService.save(new Product(null, "Big Latte", 2.99)).subscribe().dispose();
+
+        StepVerifier.create(fixture.eventBus().events().next())
+                    .assertNext(event -> {
+                        assertEquals(ProductEventType.CREATED, event.getEventType());
+                        assertEquals("Big Latte", event.getProduct().getName());
+                    })
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+
+        assertEquals(1L, repository.count().block());
+        assertEquals(1L, productService.stats(null).block().getCount());
+        assertEquals(List.of("Big Latte"), productService.search("latte", null).block()
+                                                         .stream()
+                                                         .map(Product::getName)
+                                                         .collect(Collectors.toList()));
+    }
+
+}
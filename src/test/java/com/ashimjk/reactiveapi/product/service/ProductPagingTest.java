@@ -0,0 +1,99 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPagingTest {
+
+    @Mock private ProductRepository repository;
+
+    private final List<Product> products = List.of(new Product("1", "Big Latte", 2.99));
+
+    private ProductService productService;
+
+    @BeforeEach
+    void setup() {
+        productService = ProductServiceFixture.of(repository).build();
+    }
+
+    @Test
+    void shouldContinueFromLastProduct_whenMoreProductsThanLimit() {
+        List<Product> twoProducts = List.of(new Product("1", "Big Latte", 2.99), new Product("2", "Big Decaf", 2.49));
+        when(repository.findAllBy(PageRequest.of(0, 2, Sort.by("id")))).thenReturn(Flux.fromIterable(twoProducts));
+
+        StepVerifier.create(productService.findPage(ProductFilter.NONE, null, 1))
+                    .assertNext(page -> {
+                        assertEquals(twoProducts.subList(0, 1), page.getProducts());
+                        assertEquals("1", page.getNext());
+                    })
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldGetProductsAfterCursor() {
+        when(repository.findByIdGreaterThan(eq("1"), any(Pageable.class))).thenReturn(Flux.fromIterable(products));
+
+        StepVerifier.create(productService.findPage(ProductFilter.NONE, "1", null))
+                    .assertNext(page -> {
+                        assertEquals(products, page.getProducts());
+                        assertFalse(page.hasNext());
+                    })
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldFilterProductsByNamePrefixAndPriceRange() {
+        ProductFilter filter = ProductFilter.of(null, "Big", 2.0, 3.0, "price,desc");
+        when(repository.findByFilter(filter, null, 101)).thenReturn(Flux.fromIterable(products));
+
+        StepVerifier.create(productService.findPage(filter, null, null))
+                    .assertNext(page -> assertEquals(products, page.getProducts()))
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldCapLimitAtMaximum() {
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.fromIterable(products));
+
+        StepVerifier.create(productService.findPage(ProductFilter.NONE, null, Integer.MAX_VALUE))
+                    .assertNext(page -> assertEquals(new ProductPagingProperties().getMaxLimit(), page.getLimit()))
+                    .verifyComplete();
+
+        verify(repository).findAllBy(PageRequest.of(0, new ProductPagingProperties().getMaxLimit() + 1, Sort.by("id")));
+    }
+
+    @Test
+    void shouldRejectCursor_whenNotSortedById() {
+        ProductFilter filter = ProductFilter.of(null, null, null, null, "price");
+
+        StepVerifier.create(productService.findPage(filter, "1", null))
+                    .expectError(ServerWebInputException.class)
+                    .verify();
+
+        verifyNoInteractions(repository);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import com.ashimjk.reactiveapi.product.cache.ProductCache;
+import com.ashimjk.reactiveapi.product.cache.ProductCacheProperties;
+import com.ashimjk.reactiveapi.product.cache.ProductResponseCache;
+import com.ashimjk.reactiveapi.product.cache.ProductResponseCacheProperties;
+import com.ashimjk.reactiveapi.product.event.ProductEventBus;
+import com.ashimjk.reactiveapi.product.event.ProductEventProperties;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import com.ashimjk.reactiveapi.product.search.ProductSearchIndex;
+import com.ashimjk.reactiveapi.product.search.ProductSearchProperties;
+import com.ashimjk.reactiveapi.product.stats.ProductPriceStats;
+import com.ashimjk.reactiveapi.product.stats.ProductStatsProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Builds a {@link ProductService} over a test repository with the default properties of every feature, which tests
+ * override only for the feature they exercise.
+ */
+public class ProductServiceFixture {
+
+    private final ProductRepository repository;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ProductEventBus eventBus = new ProductEventBus(new ProductEventProperties());
+
+    private ProductCacheProperties cacheProperties = new ProductCacheProperties();
+    private ProductResponseCacheProperties responseCacheProperties = new ProductResponseCacheProperties();
+    private ProductStatsProperties statsProperties = new ProductStatsProperties();
+    private ProductPagingProperties pagingProperties = new ProductPagingProperties();
+    private ProductBulkProperties bulkProperties = new ProductBulkProperties();
+    private ProductCoalescingProperties coalescingProperties = new ProductCoalescingProperties();
+    private ProductInsertBatchingProperties insertBatchingProperties = new ProductInsertBatchingProperties();
+
+    private ProductServiceFixture(ProductRepository repository) {
+        this.repository = repository;
+    }
+
+    public static ProductServiceFixture of(ProductRepository repository) {
+        return new ProductServiceFixture(repository);
+    }
+
+    public ProductServiceFixture cache(ProductCacheProperties cacheProperties) {
+        this.cacheProperties = cacheProperties;
+        return this;
+    }
+
+    public ProductServiceFixture responseCache(ProductResponseCacheProperties responseCacheProperties) {
+        this.responseCacheProperties = responseCacheProperties;
+        return this;
+    }
+
+    public ProductServiceFixture stats(ProductStatsProperties statsProperties) {
+        this.statsProperties = statsProperties;
+        return this;
+    }
+
+    public ProductServiceFixture paging(ProductPagingProperties pagingProperties) {
+        this.pagingProperties = pagingProperties;
+        return this;
+    }
+
+    public ProductServiceFixture bulk(ProductBulkProperties bulkProperties) {
+        this.bulkProperties = bulkProperties;
+        return this;
+    }
+
+    public ProductServiceFixture coalescing(ProductCoalescingProperties coalescingProperties) {
+        this.coalescingProperties = coalescingProperties;
+        return this;
+    }
+
+    public ProductServiceFixture insertBatching(ProductInsertBatchingProperties insertBatchingProperties) {
+        this.insertBatchingProperties = insertBatchingProperties;
+        return this;
+    }
+
+    /**
+     * The object mapper the response cache encodes with.
+     */
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * The event bus the built services publish to.
+     */
+    public ProductEventBus eventBus() {
+        return eventBus;
+    }
+
+    public ProductService build() {
+        return new ProductService(
+                repository,
+                new ProductCache(cacheProperties),
+                new ProductResponseCache(responseCacheProperties, objectMapper),
+                eventBus,
+                new ProductSearchIndex(new ProductSearchProperties()),
+                new ProductPriceStats(statsProperties),
+                statsProperties,
+                pagingProperties,
+                bulkProperties,
+                coalescingProperties,
+                insertBatchingProperties
+        );
+    }
+
+}
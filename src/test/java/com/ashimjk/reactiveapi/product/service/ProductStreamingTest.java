@@ -0,0 +1,87 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductFilter;
+import com.ashimjk.reactiveapi.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductStreamingTest {
+
+    @Mock private ProductRepository repository;
+
+    private final List<Product> products = IntStream.range(0, 1000)
+                                                    .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.99))
+                                                    .collect(Collectors.toList());
+
+    private ProductService productService;
+
+    @BeforeEach
+    void setup() {
+        productService = ProductServiceFixture.of(repository).build();
+    }
+
+    @Test
+    void shouldStreamAllProducts_onlyAsFastAsTheSubscriberAsks() {
+        AtomicLong requested = new AtomicLong();
+        when(repository.findAll(Sort.by("id")))
+                .thenReturn(Flux.fromIterable(products).doOnRequest(requested::addAndGet));
+
+        StepVerifier.create(productService.stream(ProductFilter.NONE, null, null), 5)
+                    .expectNextSequence(products.subList(0, 5))
+                    .thenCancel()
+                    .verify();
+
+        assertEquals(5, requested.get());
+    }
+
+    @Test
+    void shouldStreamUpToLimit_afterTheCursor() {
+        when(repository.findByIdGreaterThan("1", PageRequest.of(0, 2, Sort.by("id"))))
+                .thenReturn(Flux.fromIterable(products.subList(2, 4)));
+
+        StepVerifier.create(productService.stream(ProductFilter.NONE, "1", 2))
+                    .expectNextSequence(products.subList(2, 4))
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamProductsMatchingTheFilter_withoutALimit() {
+        ProductFilter filter = ProductFilter.of(null, "Product 1", null, null, null);
+        when(repository.findByFilter(filter, null, 0)).thenReturn(Flux.fromIterable(products.subList(1, 2)));
+
+        StepVerifier.create(productService.stream(filter, null, null))
+                    .expectNext(products.get(1))
+                    .verifyComplete();
+    }
+
+    @Test
+    void shouldRejectCursor_whenNotSortedById() {
+        ProductFilter filter = ProductFilter.of(null, null, null, null, "price");
+
+        StepVerifier.create(productService.stream(filter, "1", null))
+                    .expectError(ServerWebInputException.class)
+                    .verify();
+
+        verifyNoInteractions(repository);
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.ashimjk.reactiveapi.product.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SingleFlightTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void shouldShareOneExecution_betweenConcurrentCallsWithTheSameKey() {
+        SingleFlight<String, String> flights = new SingleFlight<>(Duration.ZERO);
+
+        Mono<String> a = flights.execute("1", () -> slowCall("Big Latte"));
+        Mono<String> b = flights.execute("1", () -> slowCall("Big Latte"));
+        Mono<String> other = flights.execute("2", () -> slowCall("Big Decaf"));
+
+        StepVerifier.create(Flux.merge(a, b, other).collectList())
+                    .assertNext(values -> assertEquals(3, values.size()))
+                    .verifyComplete();
+
+        assertEquals(2, executions.get());
+        assertEquals(1, flights.coalesced());
+    }
+
+    @Test
+    void shouldExecuteAgain_onceTheFlightHasLanded() {
+        SingleFlight<String, String> flights = new SingleFlight<>(Duration.ZERO);
+
+        flights.execute("1", () -> call("Big Latte")).block();
+        flights.execute("1", () -> call("Big Latte")).block();
+
+        assertEquals(2, executions.get());
+        assertEquals(0, flights.coalesced());
+    }
+
+    @Test
+    void shouldShareResultWithinWindow_untilForgotten() {
+        SingleFlight<String, String> flights = new SingleFlight<>(Duration.ofMinutes(1));
+
+        flights.execute("1", () -> call("Big Latte")).block();
+        flights.execute("1", () -> call("Big Latte")).block();
+        assertEquals(1, executions.get());
+
+        flights.forgetAll();
+        flights.execute("1", () -> call("Big Latte")).block();
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldNotKeepFailures_withinWindow() {
+        SingleFlight<String, String> flights = new SingleFlight<>(Duration.ofMinutes(1));
+
+        StepVerifier.create(flights.execute("1", this::failingCall))
+                    .verifyError(IllegalStateException.class);
+        StepVerifier.create(flights.execute("1", () -> call("Big Latte")))
+                    .expectNext("Big Latte")
+                    .verifyComplete();
+
+        assertEquals(2, executions.get());
+    }
+
+    private Mono<String> call(String value) {
+        return Mono.fromSupplier(() -> {
+            executions.incrementAndGet();
+            return value;
+        });
+    }
+
+    private Mono<String> slowCall(String value) {
+        return call(value).delaySubscription(Duration.ofMillis(100));
+    }
+
+    private Mono<String> failingCall() {
+        return Mono.defer(() -> {
+            executions.incrementAndGet();
+            return Mono.error(new IllegalStateException("Mongo is down"));
+        });
+    }
+
+}
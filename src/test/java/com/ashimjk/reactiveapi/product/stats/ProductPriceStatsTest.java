@@ -0,0 +1,89 @@
+package com.ashimjk.reactiveapi.product.stats;
+
+import com.ashimjk.reactiveapi.product.model.Product;
+import com.ashimjk.reactiveapi.product.model.ProductStats;
+import com.ashimjk.reactiveapi.product.model.ProductStatsCheck;
+import com.ashimjk.reactiveapi.product.repository.memory.InMemoryProductProperties;
+import com.ashimjk.reactiveapi.product.repository.memory.InMemoryProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductPriceStatsTest {
+
+    private final ProductStatsProperties properties = new ProductStatsProperties();
+    private final ProductPriceStats stats = new ProductPriceStats(properties);
+
+    @Test
+    void shouldAgreeWithTheAggregate_afterRandomCreatesUpdatesAndDeletes() {
+        InMemoryProductRepository repository = new InMemoryProductRepository(new InMemoryProductProperties());
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> ids = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || ids.isEmpty()) {
+                Product product = repository.save(new Product(null, "Product " + i, price(random))).block();
+                ids.add(product.getId());
+                stats.put(product);
+            } else if (operation < 9) {
+                String id = ids.get(random.nextInt(ids.size()));
+                Product product = repository.findAndUpdate(id, new Product(id, "Product " + i, price(random)), null)
+                                            .block();
+                stats.put(product);
+            } else {
+                String id = ids.remove(random.nextInt(ids.size()));
+                repository.findAndDeleteById(id, null).block();
+                stats.remove(id);
+            }
+        }
+
+        ProductStats aggregate = repository.aggregatePriceStats(properties.getPercentiles()).block();
+        ProductStatsCheck check = ProductStatsCheck.of(stats.stats(), aggregate, properties.getRelativeAccuracy());
+
+        assertTrue(check.isConsistent(), check.getDifferences()::toString);
+        assertEquals(ids.size(), check.getRunning().getCount());
+    }
+
+    @Test
+    void shouldOrderNegativeZeroAndPositivePrices() {
+        stats.put(new Product("1", "Refund", -5.0));
+        stats.put(new Product("2", "Free Sample", 0.0));
+        stats.put(new Product("3", "Big Latte", 2.99));
+        stats.put(new Product("4", "Unpriced", null));
+
+        ProductStats running = stats.stats();
+        Map<String, Double> percentiles = running.getPercentiles();
+
+        assertEquals(3, running.getCount());
+        assertEquals(-5.0, running.getMin());
+        assertEquals(2.99, running.getMax());
+        assertEquals(0.0, percentiles.get("p50"));
+        assertEquals(2.99, percentiles.get("p99"), 2.99 * properties.getRelativeAccuracy());
+    }
+
+    @Test
+    void shouldForgetEverything_whenCleared() {
+        stats.put(new Product("1", "Big Latte", 2.99));
+        stats.stats();
+
+        stats.clear();
+
+        assertEquals(0, stats.stats().getCount());
+        assertNull(stats.stats().getAvg());
+    }
+
+    private static Double price(SplittableRandom random) {
+        // mostly cents between 0.50 and 20.00, with a tail of expensive products
+        double price = random.nextInt(10) == 0 ? random.nextDouble(20, 5000) : random.nextDouble(0.5, 20);
+        return Math.round(price * 100) / 100.0;
+    }
+
+}